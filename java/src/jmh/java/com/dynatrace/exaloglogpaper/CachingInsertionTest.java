@@ -0,0 +1,93 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+public class CachingInsertionTest {
+
+  @State(Scope.Thread)
+  public static class TestState {
+
+    @Param({"0.8", "1.0", "1.2"})
+    public double zipfExponent;
+
+    @Param({"1000000"})
+    public int numDistinctElements;
+
+    @Param({"1000000"})
+    public int numElements;
+
+    @Param({"6", "10", "14"})
+    public int log2CacheSize;
+
+    public long[] hashValues;
+
+    @Setup(Level.Trial)
+    public void initTrial() {
+      SplittableRandom random = new SplittableRandom(0x3a6f19d2c84e07b5L);
+      long[] distinctHashValues = random.longs(numDistinctElements).toArray();
+      double[] cumulativeWeights = new double[numDistinctElements];
+      double sum = 0;
+      for (int i = 0; i < numDistinctElements; ++i) {
+        sum += Math.pow(i + 1, -zipfExponent);
+        cumulativeWeights[i] = sum;
+      }
+      hashValues = new long[numElements];
+      for (int i = 0; i < numElements; ++i) {
+        int idx = Arrays.binarySearch(cumulativeWeights, random.nextDouble() * sum);
+        if (idx < 0) {
+          idx = -idx - 1;
+        }
+        hashValues[i] = distinctHashValues[Math.min(idx, numDistinctElements - 1)];
+      }
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void insertWithoutCache(TestState testState, Blackhole blackhole) {
+    ExaLogLog sketch = ExaLogLog.create(2, 20, 12);
+    for (long hashValue : testState.hashValues) {
+      sketch.add(hashValue);
+    }
+    blackhole.consume(sketch);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void insertWithCache(TestState testState, Blackhole blackhole) {
+    CachingExaLogLog sketch = CachingExaLogLog.create(2, 20, 12, testState.log2CacheSize);
+    for (long hashValue : testState.hashValues) {
+      sketch.add(hashValue);
+    }
+    blackhole.consume(sketch);
+  }
+}
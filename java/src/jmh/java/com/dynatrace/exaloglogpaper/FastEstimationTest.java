@@ -0,0 +1,144 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import com.dynatrace.exaloglogpaper.DistinctCountUtil.SolverStatistics;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+public class FastEstimationTest {
+
+  private static final int NUM_SKETCHES = 20;
+
+  @State(Scope.Thread)
+  public static class TestState {
+
+    @Param({"2"})
+    public int t;
+
+    @Param({"20"})
+    public int d;
+
+    @Param({"8", "12", "16"})
+    public int p;
+
+    @Param({"100", "10000", "1000000", "10000000"})
+    public int numElements;
+
+    @Param({"0", "1e-6", "1e-3"})
+    public double relativeErrorLimit;
+
+    @Param({"2147483647", "3"})
+    public int maxIterations;
+
+    public ExaLogLog[] sketches;
+
+    @Setup(Level.Trial)
+    public void initTrial() {
+      SplittableRandom random = new SplittableRandom(0x2c7e4b91f5a03d68L);
+      sketches = new ExaLogLog[NUM_SKETCHES];
+      for (int j = 0; j < NUM_SKETCHES; ++j) {
+        ExaLogLog sketch = ExaLogLog.create(t, d, p);
+        for (int i = 0; i < numElements; ++i) {
+          sketch.add(random.nextLong());
+        }
+        sketches[j] = sketch;
+      }
+    }
+  }
+
+  // distribution of the number of Newton iterations per estimate
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class IterationCounters {
+
+    public long estimates;
+    public long iterations0;
+    public long iterations1;
+    public long iterations2;
+    public long iterations3;
+    public long iterations4;
+    public long iterations5;
+    public long iterations6;
+    public long iterations7OrMore;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      estimates = 0;
+      iterations0 = 0;
+      iterations1 = 0;
+      iterations2 = 0;
+      iterations3 = 0;
+      iterations4 = 0;
+      iterations5 = 0;
+      iterations6 = 0;
+      iterations7OrMore = 0;
+    }
+
+    void record(int numIterations) {
+      estimates += 1;
+      switch (numIterations) {
+        case 0 -> iterations0 += 1;
+        case 1 -> iterations1 += 1;
+        case 2 -> iterations2 += 1;
+        case 3 -> iterations3 += 1;
+        case 4 -> iterations4 += 1;
+        case 5 -> iterations5 += 1;
+        case 6 -> iterations6 += 1;
+        default -> iterations7OrMore += 1;
+      }
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  @OperationsPerInvocation(NUM_SKETCHES)
+  public void estimate(TestState testState, Blackhole blackhole) {
+    for (ExaLogLog sketch : testState.sketches) {
+      blackhole.consume(
+          sketch.getDistinctCountEstimate(testState.relativeErrorLimit, testState.maxIterations));
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  @OperationsPerInvocation(NUM_SKETCHES)
+  public void estimateWithIterationCounts(
+      TestState testState, IterationCounters iterationCounters, Blackhole blackhole) {
+    for (ExaLogLog sketch : testState.sketches) {
+      SolverStatistics solverStatistics = new SolverStatistics();
+      blackhole.consume(
+          sketch.getDistinctCountEstimate(
+              testState.relativeErrorLimit, testState.maxIterations, solverStatistics));
+      iterationCounters.record(solverStatistics.iterationCounter);
+    }
+  }
+}
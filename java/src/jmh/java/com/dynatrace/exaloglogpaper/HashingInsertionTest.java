@@ -0,0 +1,127 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import com.dynatrace.hash4j.hashing.Hasher64;
+import com.dynatrace.hash4j.hashing.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+public class HashingInsertionTest {
+
+  public enum HashFunction {
+    KOMIHASH_5_0(Hashing.komihash5_0()),
+    WYHASH_FINAL_4(Hashing.wyhashFinal4()),
+    XXH3_64(Hashing.xxh3_64()),
+    MURMUR3_128(Hashing.murmur3_128()),
+    FARMHASH_NA(Hashing.farmHashNa());
+
+    private final Hasher64 hasher;
+
+    HashFunction(Hasher64 hasher) {
+      this.hasher = hasher;
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestState {
+
+    @Param public HashFunction hashFunction;
+
+    @Param({"1000", "100000"})
+    public int numElements;
+
+    @Param({"16"})
+    public int stringLength;
+
+    public String[] strings;
+    public long[] longs;
+
+    @Setup(Level.Trial)
+    public void initTrial() {
+      SplittableRandom random = new SplittableRandom(0x5b4e2c8d17a0f396L);
+      strings = new String[numElements];
+      longs = new long[numElements];
+      char[] chars = new char[stringLength];
+      for (int i = 0; i < numElements; ++i) {
+        for (int j = 0; j < stringLength; ++j) {
+          chars[j] = (char) ('a' + random.nextInt(26));
+        }
+        strings[i] = new String(chars);
+        longs[i] = random.nextLong();
+      }
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void hashChars(TestState testState, Blackhole blackhole) {
+    Hasher64 hasher = testState.hashFunction.hasher;
+    for (String s : testState.strings) {
+      blackhole.consume(hasher.hashCharsToLong(s));
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void insertChars(TestState testState, Blackhole blackhole) {
+    HashingExaLogLog sketch = HashingExaLogLog.create(2, 20, 12, testState.hashFunction.hasher);
+    for (String s : testState.strings) {
+      sketch.addChars(s);
+    }
+    blackhole.consume(sketch);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void insertCharsViaByteArray(TestState testState, Blackhole blackhole) {
+    HashingExaLogLog sketch = HashingExaLogLog.create(2, 20, 12, testState.hashFunction.hasher);
+    for (String s : testState.strings) {
+      sketch.addBytes(s.getBytes(StandardCharsets.UTF_8));
+    }
+    blackhole.consume(sketch);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void hashLongs(TestState testState, Blackhole blackhole) {
+    Hasher64 hasher = testState.hashFunction.hasher;
+    for (long l : testState.longs) {
+      blackhole.consume(hasher.hashLongToLong(l));
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void insertLongs(TestState testState, Blackhole blackhole) {
+    HashingExaLogLog sketch = HashingExaLogLog.create(2, 20, 12, testState.hashFunction.hasher);
+    sketch.addLongs(testState.longs, 0, testState.longs.length);
+    blackhole.consume(sketch);
+  }
+}
@@ -0,0 +1,84 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+public class MixedPrecisionMergeTest {
+
+  @State(Scope.Thread)
+  public static class TestState {
+
+    @Param({"2"})
+    public int t;
+
+    @Param({"20"})
+    public int d;
+
+    @Param({"12"})
+    public int fromP;
+
+    @Param({"10", "8"})
+    public int toP;
+
+    @Param({"20"})
+    public int toD;
+
+    @Param({"100", "10000", "1000000"})
+    public int numElements;
+
+    @Param({"60"})
+    public int numSketches;
+
+    public ExaLogLog[] sketches;
+
+    @Setup(Level.Trial)
+    public void initTrial() {
+      SplittableRandom random = new SplittableRandom(0x7a2f5c91e0d438b6L);
+      sketches = new ExaLogLog[numSketches];
+      for (int j = 0; j < numSketches; ++j) {
+        ExaLogLog sketch = ExaLogLog.create(t, d, fromP);
+        for (int i = 0; i < numElements; ++i) {
+          sketch.add(random.nextLong());
+        }
+        sketches[j] = sketch;
+      }
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void merge(TestState testState, Blackhole blackhole) {
+    ExaLogLog target = ExaLogLog.create(testState.t, testState.toD, testState.toP);
+    for (ExaLogLog sketch : testState.sketches) {
+      target.add(sketch);
+    }
+    blackhole.consume(target);
+  }
+}
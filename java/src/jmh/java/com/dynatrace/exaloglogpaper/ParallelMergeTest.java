@@ -0,0 +1,88 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+public class ParallelMergeTest {
+
+  @State(Scope.Thread)
+  public static class TestState {
+
+    @Param({"16", "18", "20", "22", "24"})
+    public int p;
+
+    @Param({"2"})
+    public int t;
+
+    @Param({"20"})
+    public int d;
+
+    public ExaLogLog sketch1;
+    public ExaLogLog sketch2;
+
+    @Setup(Level.Trial)
+    public void initTrial() {
+      SplittableRandom random = new SplittableRandom(0x1f6d3b8a2e4c9075L);
+      sketch1 = ExaLogLog.create(t, d, p);
+      sketch2 = ExaLogLog.create(t, d, p);
+      long numElements = 4L << p;
+      for (long i = 0; i < numElements; ++i) {
+        sketch1.add(random.nextLong());
+        sketch2.add(random.nextLong());
+      }
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void mergeSequential(TestState testState, Blackhole blackhole) {
+    blackhole.consume(testState.sketch1.copy().add(testState.sketch2));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void mergeParallel(TestState testState, Blackhole blackhole) {
+    blackhole.consume(testState.sketch1.copy().add(testState.sketch2, ForkJoinPool.commonPool()));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void downsizeSequential(TestState testState, Blackhole blackhole) {
+    blackhole.consume(testState.sketch1.downsize(testState.d, testState.p - 2));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void downsizeParallel(TestState testState, Blackhole blackhole) {
+    blackhole.consume(
+        testState.sketch1.downsize(testState.d, testState.p - 2, ForkJoinPool.commonPool()));
+  }
+}
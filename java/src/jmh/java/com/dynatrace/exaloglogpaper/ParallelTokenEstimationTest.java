@@ -0,0 +1,90 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import com.dynatrace.exaloglogpaper.DistinctCountUtil.TokenIterable;
+import com.dynatrace.exaloglogpaper.DistinctCountUtil.TokenIterator;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import org.openjdk.jmh.annotations.*;
+
+public class ParallelTokenEstimationTest {
+
+  @State(Scope.Thread)
+  public static class TestState {
+
+    @Param({"26"})
+    public int v;
+
+    @Param({"1000000", "10000000", "100000000"})
+    public int numTokens;
+
+    public int[] tokens;
+
+    @Setup(Level.Trial)
+    public void initTrial() {
+      SplittableRandom random = new SplittableRandom(0x3d81c6f0a59e2b47L);
+      tokens = new int[numTokens];
+      for (int i = 0; i < numTokens; ++i) {
+        tokens[i] = DistinctCountUtil.computeToken(random.nextLong(), v);
+      }
+      Arrays.sort(tokens);
+    }
+  }
+
+  private static TokenIterable fromSortedArray(int[] tokens) {
+    return () ->
+        new TokenIterator() {
+          private int idx = 0;
+
+          @Override
+          public boolean hasNext() {
+            return idx < tokens.length;
+          }
+
+          @Override
+          public int nextToken() {
+            return tokens[idx++];
+          }
+        };
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public double estimateSequential(TestState testState) {
+    return DistinctCountUtil.estimateDistinctCountFromTokens(
+        fromSortedArray(testState.tokens), testState.v);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public double estimateParallel(TestState testState) {
+    return DistinctCountUtil.estimateDistinctCountFromTokens(
+        testState.tokens, testState.v, ForkJoinPool.commonPool());
+  }
+}
@@ -0,0 +1,111 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+public class PartitionedIngestionTest {
+
+  @State(Scope.Benchmark)
+  public static class TestState {
+
+    @Param({"2"})
+    public int t;
+
+    @Param({"24"})
+    public int d;
+
+    @Param({"20"})
+    public int p;
+
+    @Param({"1", "2", "4", "8", "16", "32", "64"})
+    public int numWorkers;
+
+    @Param({"1", "4", "16"})
+    public int numProducers;
+
+    @Param({"100000000"})
+    public int numElements;
+
+    @Param({"4096"})
+    public int ringBufferCapacity;
+
+    public long[] hashValues;
+
+    public ExecutorService executorService;
+
+    @Setup(Level.Trial)
+    public void initTrial() {
+      hashValues = new SplittableRandom(0x3c9b5a1f7e2d4086L).longs(numElements).toArray();
+      executorService = Executors.newFixedThreadPool(numProducers);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+      executorService.shutdown();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void insertPartitioned(TestState testState, Blackhole blackhole) throws Exception {
+    ExaLogLog sketch = ExaLogLog.create(testState.t, testState.d, testState.p);
+    long[] hashValues = testState.hashValues;
+    int numProducers = testState.numProducers;
+    try (PartitionedIngestionEngine engine =
+        PartitionedIngestionEngine.start(
+            sketch, numProducers, testState.numWorkers, testState.ringBufferCapacity)) {
+      Future<?>[] futures = new Future<?>[numProducers];
+      for (int i = 0; i < numProducers; ++i) {
+        PartitionedIngestionEngine.Producer producer = engine.getProducer(i);
+        int fromIdx = (int) ((long) hashValues.length * i / numProducers);
+        int toIdx = (int) ((long) hashValues.length * (i + 1) / numProducers);
+        futures[i] =
+            testState.executorService.submit(() -> producer.add(hashValues, fromIdx, toIdx));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+    blackhole.consume(sketch);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void insertSequential(TestState testState, Blackhole blackhole) {
+    ExaLogLog sketch = ExaLogLog.create(testState.t, testState.d, testState.p);
+    for (long hashValue : testState.hashValues) {
+      sketch.add(hashValue);
+    }
+    blackhole.consume(sketch);
+  }
+}
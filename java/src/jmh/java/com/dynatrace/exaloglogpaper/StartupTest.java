@@ -0,0 +1,89 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import com.dynatrace.hash4j.util.PackedArray;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// measures the time to the first estimate of a freshly loaded ExaLogLog class, which includes
+// class loading and static initialization, each invocation uses a new class loader
+public class StartupTest {
+
+  private static final int NUM_ELEMENTS = 1000;
+
+  @State(Scope.Benchmark)
+  public static class TestState {
+
+    @Param({"0", "1", "2"})
+    public int t;
+
+    @Param({"2", "9", "20"})
+    public int d;
+
+    @Param({"12"})
+    public int p;
+
+    public URL[] urls;
+
+    @Setup(Level.Trial)
+    public void initTrial() {
+      urls =
+          new URL[] {
+            ExaLogLog.class.getProtectionDomain().getCodeSource().getLocation(),
+            PackedArray.class.getProtectionDomain().getCodeSource().getLocation()
+          };
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 10)
+  @Measurement(iterations = 100)
+  public double timeToFirstEstimate(TestState state) throws Exception {
+    try (URLClassLoader classLoader =
+        new URLClassLoader(state.urls, ClassLoader.getPlatformClassLoader())) {
+      Class<?> sketchClass =
+          Class.forName("com.dynatrace.exaloglogpaper.ExaLogLog", true, classLoader);
+      Object sketch =
+          sketchClass
+              .getMethod("create", int.class, int.class, int.class)
+              .invoke(null, state.t, state.d, state.p);
+      Method add = sketchClass.getMethod("add", long.class);
+      SplittableRandom random = new SplittableRandom(0x4e0b7d2a91c6f358L);
+      for (int i = 0; i < NUM_ELEMENTS; ++i) {
+        add.invoke(sketch, random.nextLong());
+      }
+      return (double) sketchClass.getMethod("getDistinctCountEstimate").invoke(sketch);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.*;
+
+public class TokenSortingTest {
+
+  @State(Scope.Thread)
+  public static class TestState {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int numHashValues;
+
+    public long[] hashValues;
+    public int[] tokens;
+    public int[] buffer;
+
+    @Setup(Level.Trial)
+    public void initTrial() {
+      SplittableRandom random = new SplittableRandom(0x1b9f4e7c26a03d58L);
+      hashValues = random.longs(numHashValues).toArray();
+      tokens = new int[numHashValues];
+      buffer = new int[numHashValues];
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public int computeSortedDistinctTokens(TestState testState) {
+    return ExaLogLog.computeSortedDistinctTokens(
+        testState.hashValues, 0, testState.numHashValues, testState.tokens, testState.buffer);
+  }
+
+  // reference, which computes the tokens one at a time, sorts them, and removes duplicates
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public int computeTokensSortAndDeduplicate(TestState testState) {
+    long[] hashValues = testState.hashValues;
+    int[] tokens = testState.tokens;
+    int n = testState.numHashValues;
+    for (int i = 0; i < n; ++i) {
+      tokens[i] = ExaLogLog.computeToken(hashValues[i]);
+    }
+    Arrays.sort(tokens, 0, n);
+    int numDistinctTokens = 0;
+    for (int i = 0; i < n; ++i) {
+      if (numDistinctTokens == 0 || tokens[numDistinctTokens - 1] != tokens[i]) {
+        tokens[numDistinctTokens++] = tokens[i];
+      }
+    }
+    return numDistinctTokens;
+  }
+}
@@ -0,0 +1,93 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import com.dynatrace.exaloglogpaper.DistinctCountUtil.TokenIterable;
+import com.dynatrace.exaloglogpaper.DistinctCountUtil.TokenIterator;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.*;
+
+public class UnsortedTokenEstimationTest {
+
+  @State(Scope.Thread)
+  public static class TestState {
+
+    @Param({"26"})
+    public int v;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int numTokens;
+
+    // unsorted tokens, every token occurs twice on average
+    public int[] tokens;
+
+    @Setup(Level.Trial)
+    public void initTrial() {
+      SplittableRandom random = new SplittableRandom(0x58e1b3c7f20a9d46L);
+      long[] hashes = random.longs(Math.max(1, numTokens / 2)).toArray();
+      tokens = new int[numTokens];
+      for (int i = 0; i < numTokens; ++i) {
+        tokens[i] = DistinctCountUtil.computeToken(hashes[random.nextInt(hashes.length)], v);
+      }
+    }
+  }
+
+  private static TokenIterable fromSortedArray(int[] tokens) {
+    return () ->
+        new TokenIterator() {
+          private int idx = 0;
+
+          @Override
+          public boolean hasNext() {
+            return idx < tokens.length;
+          }
+
+          @Override
+          public int nextToken() {
+            return tokens[idx++];
+          }
+        };
+  }
+
+  // the tokens are copied, as the input must not be modified, like for the hash-based variant
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public double sortThenEstimate(TestState testState) {
+    int[] sortedTokens = testState.tokens.clone();
+    Arrays.sort(sortedTokens);
+    return DistinctCountUtil.estimateDistinctCountFromTokens(
+        fromSortedArray(sortedTokens), testState.v);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public double estimateUnsorted(TestState testState) {
+    return DistinctCountUtil.estimateDistinctCountFromUnsortedTokens(
+        testState.tokens, testState.v);
+  }
+}
@@ -0,0 +1,175 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An ExaLogLog sketch with a small direct-mapped cache of recently added hash values in front of
+ * it.
+ *
+ * <p>Exact repeats of a cached hash value are skipped without touching the registers. As insertion
+ * is idempotent, the final state of the sketch is the same as without the cache. This pays off for
+ * highly skewed streams where the same elements are added many times in a short period of time.
+ *
+ * <p>The cache assumes that the underlying sketch is only modified through this instance. If it
+ * is modified otherwise, for example reset, {@link #clearCache()} must be called. Like {@link
+ * ExaLogLog}, this class is not thread-safe.
+ */
+public final class CachingExaLogLog {
+
+  private static final int MIN_LOG2_CACHE_SIZE = 1;
+  private static final int MAX_LOG2_CACHE_SIZE = 20;
+
+  private final ExaLogLog sketch;
+
+  // slot i holds a hash value whose least significant bits are equal to i, initially i ^ 1 which
+  // belongs to a different slot and therefore never matches
+  private final long[] cache;
+
+  private final int cacheMask;
+
+  private CachingExaLogLog(ExaLogLog sketch, int log2CacheSize) {
+    this.sketch = sketch;
+    this.cache = new long[1 << log2CacheSize];
+    this.cacheMask = cache.length - 1;
+    clearCache();
+  }
+
+  private static void checkLog2CacheSize(int log2CacheSize) {
+    if (log2CacheSize < MIN_LOG2_CACHE_SIZE || log2CacheSize > MAX_LOG2_CACHE_SIZE) {
+      throw new IllegalArgumentException("illegal cache size");
+    }
+  }
+
+  /**
+   * Creates an empty ExaLogLog sketch with a cache of {@code 2^log2CacheSize} hash values.
+   *
+   * @param t the t-parameter
+   * @param d the d-parameter
+   * @param p the precision parameter
+   * @param log2CacheSize the base-2 logarithm of the cache size, must be in the range [1, 20]
+   * @return the new instance
+   * @throws IllegalArgumentException if any of the parameters is invalid
+   */
+  public static CachingExaLogLog create(int t, int d, int p, int log2CacheSize) {
+    checkLog2CacheSize(log2CacheSize);
+    return new CachingExaLogLog(ExaLogLog.create(t, d, p), log2CacheSize);
+  }
+
+  /**
+   * Puts a cache of {@code 2^log2CacheSize} hash values in front of an existing sketch.
+   *
+   * @param sketch the sketch
+   * @param log2CacheSize the base-2 logarithm of the cache size, must be in the range [1, 20]
+   * @return the new instance
+   * @throws NullPointerException if the sketch is null
+   * @throws IllegalArgumentException if the cache size is invalid
+   */
+  public static CachingExaLogLog wrap(ExaLogLog sketch, int log2CacheSize) {
+    requireNonNull(sketch, "null argument");
+    checkLog2CacheSize(log2CacheSize);
+    return new CachingExaLogLog(sketch, log2CacheSize);
+  }
+
+  /**
+   * Returns the underlying sketch.
+   *
+   * @return the underlying sketch
+   */
+  public ExaLogLog getSketch() {
+    return sketch;
+  }
+
+  /**
+   * Returns the base-2 logarithm of the cache size.
+   *
+   * @return the base-2 logarithm of the cache size
+   */
+  public int getLog2CacheSize() {
+    return Integer.numberOfTrailingZeros(cache.length);
+  }
+
+  /**
+   * Adds a new element represented by a 64-bit hash value.
+   *
+   * @param hashValue a 64-bit hash value
+   * @return this instance
+   */
+  public CachingExaLogLog add(long hashValue) {
+    int slot = (int) hashValue & cacheMask;
+    if (cache[slot] != hashValue) {
+      cache[slot] = hashValue;
+      sketch.add(hashValue);
+    }
+    return this;
+  }
+
+  /**
+   * Adds a new element represented by a 32-bit token obtained from {@link
+   * ExaLogLog#computeToken(long)}.
+   *
+   * @param token a 32-bit hash token
+   * @return this instance
+   */
+  public CachingExaLogLog addToken(int token) {
+    // the least significant V bits of the reconstructed hash value are those of the original hash
+    // value, so they are as well distributed for selecting a slot
+    return add(DistinctCountUtil.reconstructHash(token, ExaLogLog.V));
+  }
+
+  /**
+   * Clears the cache without modifying the underlying sketch.
+   *
+   * @return this instance
+   */
+  public CachingExaLogLog clearCache() {
+    for (int i = 0; i < cache.length; ++i) {
+      cache[i] = i ^ 1;
+    }
+    return this;
+  }
+
+  /**
+   * Resets the underlying sketch and clears the cache.
+   *
+   * @return this instance
+   */
+  public CachingExaLogLog reset() {
+    sketch.reset();
+    return clearCache();
+  }
+
+  /**
+   * Returns a distinct count estimate of the underlying sketch.
+   *
+   * @return the distinct count estimate
+   */
+  public double getDistinctCountEstimate() {
+    return sketch.getDistinctCountEstimate();
+  }
+}
@@ -0,0 +1,206 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static com.dynatrace.exaloglogpaper.DistinctCountUtil.pow2;
+import static com.dynatrace.exaloglogpaper.MLBiasCorrectionConstants.ML_BIAS_CORRECTION_CONSTANTS;
+
+import com.dynatrace.hash4j.util.PackedArray;
+import com.dynatrace.hash4j.util.PackedArray.PackedArrayHandler;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A closed-form distinct count estimator for {@link ExaLogLog} sketches, which does not require to
+ * solve an equation iteratively.
+ *
+ * <p>The expected state change probability of a sketch is a decreasing function of the distinct
+ * count per register. This function is inverted using a lookup table, that is computed once per t-
+ * and d-parameter. As the state change probability is maintained incrementally, the estimate is
+ * obtained in constant time. For small distinct counts, where the state change probability is less
+ * informative, the initial guess of the maximum-likelihood solver (see Algorithm 8 in the paper)
+ * is used, which is very close to the maximum-likelihood estimate in this range, but requires a
+ * pass over all registers.
+ */
+final class ClosedFormEstimator implements ExaLogLog.Estimator {
+
+  // number of table entries per unit of -log2(state change probability)
+  private static final int TABLE_RESOLUTION = 64;
+
+  // distinct count per register up to which the small range estimate is used
+  private static final double SMALL_RANGE_LIMIT = 1.;
+
+  private static final ConcurrentHashMap<Integer, double[]> TABLES = new ConcurrentHashMap<>();
+
+  @Override
+  public double estimate(ExaLogLog sketch) {
+    double stateChangeProbability = sketch.getStateChangeProbability();
+    if (stateChangeProbability >= 1.) {
+      return 0.;
+    }
+    if (stateChangeProbability <= 0.) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double[] table = getTable(sketch.getT(), sketch.getD());
+    double x = Math.log(stateChangeProbability) * (-TABLE_RESOLUTION / Math.log(2.));
+    int idx = (int) x;
+    double ratio;
+    if (idx < table.length - 1) {
+      ratio = table[idx] + (x - idx) * (table[idx + 1] - table[idx]);
+    } else {
+      ratio = table[table.length - 1];
+    }
+    double distinctCountPerRegister = (1. / stateChangeProbability - 1.) * ratio;
+    if (distinctCountPerRegister > SMALL_RANGE_LIMIT) {
+      return distinctCountPerRegister * (1 << sketch.getP());
+    }
+    return estimateSmallRange(sketch, stateChangeProbability);
+  }
+
+  private static double estimateSmallRange(ExaLogLog sketch, double stateChangeProbability) {
+    int t = sketch.getT();
+    int d = sketch.getD();
+    int p = sketch.getP();
+    int m = 1 << p;
+    int[] b = new int[64];
+    PackedArrayHandler registerAccess = PackedArray.getHandler(ExaLogLog.getRegisterBitSize(t, d));
+    byte[] state = sketch.peekState();
+    for (int idx = 0; idx < m; ++idx) {
+      sketch.contribute(registerAccess.get(state, idx), b);
+    }
+    double sigma0 = 0;
+    double sigma1 = 0;
+    for (int j = 0; j < b.length; ++j) {
+      sigma0 += b[j];
+      sigma1 += b[j] * pow2(-j);
+    }
+    double factor = m << (t + 1);
+    double a = stateChangeProbability * factor;
+    return factor
+        * Math.log1p(sigma1 / a)
+        * (sigma0 / sigma1)
+        / (1 + ML_BIAS_CORRECTION_CONSTANTS[t][d] / m);
+  }
+
+  private static double[] getTable(int t, int d) {
+    Integer key = (t << 8) | d;
+    double[] table = TABLES.get(key);
+    if (table == null) {
+      table = computeTable(t, d);
+      double[] previous = TABLES.putIfAbsent(key, table);
+      if (previous != null) {
+        table = previous;
+      }
+    }
+    return table;
+  }
+
+  // tabulates the ratio lambda / (1 / mu(lambda) - 1) at equidistant values of -log2(mu(lambda)),
+  // where mu(lambda) is the expected state change probability, if the number of updates of each
+  // register is Poisson distributed with mean lambda, the ratio is tabulated for -log2(mu) up to
+  // a limit, beyond which it is practically constant, the table is computed by evaluating
+  // mu(lambda) for equidistant values of log2(lambda) and interpolating linearly
+  static double[] computeTable(int t, int d) {
+    int maxLog2 = Math.min((d >>> t) + 16, 64);
+    int numLevels = maxLog2 + 32;
+    double[] table = new double[maxLog2 * TABLE_RESOLUTION + 1];
+    table[0] = 1. / computeExpectedStateChangeProbabilityDerivativeAtZero(t, d, numLevels);
+    double previousX = 0;
+    double previousRatio = table[0];
+    int idx = 1;
+    for (int i = -8 * TABLE_RESOLUTION; idx < table.length; ++i) {
+      double lambda = Math.pow(2., i / (double) TABLE_RESOLUTION);
+      double mu = computeExpectedStateChangeProbability(t, d, numLevels, lambda);
+      double x = Math.log(mu) * (-TABLE_RESOLUTION / Math.log(2.));
+      double ratio = lambda * mu / (1. - mu);
+      for (; idx < table.length && idx <= x; ++idx) {
+        table[idx] =
+            previousRatio + (ratio - previousRatio) * ((idx - previousX) / (x - previousX));
+      }
+      previousX = x;
+      previousRatio = ratio;
+    }
+    return table;
+  }
+
+  // an update value k, which is in level j = (k - 1) >>> t, occurs with probability
+  // pi_j = 2^(-j-1-t), it changes the register, if neither k nor any value greater than k + d has
+  // been observed before, the probability of values greater than k is given by
+  // pi_j * (2^(t+1) - 1 - s) with s = (k - 1) & (2^t - 1), hence, the state change probability is
+  // sum_k pi_j * exp(-lambda * c_k) with c_k = pi_j + pi_j' * (2^(t+1) - 1 - s'), where j' and s'
+  // correspond to k + d, for each level j the values k + d fall into at most two levels, within
+  // which c_k is a linear function of s' and the terms form geometric series
+  static double computeExpectedStateChangeProbability(
+      int t, int d, int numLevels, double lambda) {
+    int numValuesPerLevel = 1 << t;
+    int levelOffset = d >>> t;
+    int n2 = d & (numValuesPerLevel - 1); // number of values k + d in the second level
+    int n1 = numValuesPerLevel - n2; // number of values k + d in the first level
+    double sum = 0;
+    for (int j = 0; j < numLevels; ++j) {
+      double pi = pow2(-j - 1 - t);
+      double pi1 = pow2(-j - levelOffset - 1 - t);
+      double pi2 = pi1 * 0.5;
+      double levelSum =
+          Math.exp(-lambda * (pi + pi1 * numValuesPerLevel)) * geometricSum(lambda * pi1, n1);
+      if (n2 > 0) {
+        levelSum +=
+            Math.exp(-lambda * (pi + pi2 * (2 * numValuesPerLevel - n2)))
+                * geometricSum(lambda * pi2, n2);
+      }
+      sum += pi * levelSum;
+    }
+    return sum;
+  }
+
+  // sum_k pi_j * c_k
+  static double computeExpectedStateChangeProbabilityDerivativeAtZero(
+      int t, int d, int numLevels) {
+    int numValuesPerLevel = 1 << t;
+    int levelOffset = d >>> t;
+    int n2 = d & (numValuesPerLevel - 1);
+    int n1 = numValuesPerLevel - n2;
+    double sum = 0;
+    for (int j = 0; j < numLevels; ++j) {
+      double pi = pow2(-j - 1 - t);
+      double pi1 = pow2(-j - levelOffset - 1 - t);
+      double pi2 = pi1 * 0.5;
+      // sums of the arithmetic series of c_k
+      double levelSum = n1 * (pi + pi1 * (numValuesPerLevel + 0.5 * (n1 - 1)));
+      levelSum += n2 * (pi + pi2 * (2 * numValuesPerLevel - n2 + 0.5 * (n2 - 1)));
+      sum += pi * levelSum;
+    }
+    return sum;
+  }
+
+  // sum_{i=0}^{n-1} exp(-x * i)
+  private static double geometricSum(double x, int n) {
+    if (x == 0.) {
+      return n;
+    }
+    return Math.expm1(-x * n) / Math.expm1(-x);
+  }
+}
@@ -0,0 +1,224 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static java.util.Objects.requireNonNull;
+
+import com.dynatrace.hash4j.util.PackedArray;
+import com.dynatrace.hash4j.util.PackedArray.PackedArrayHandler;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A thread-safe accumulator that allows to merge {@link ExaLogLog} sketches concurrently.
+ *
+ * <p>In contrast to {@link ExaLogLog}, each register is kept in a separate 64-bit word. This allows
+ * to merge registers lock-free using compare-and-set operations, so that many threads can fold
+ * their partial results into the same accumulator simultaneously. Since registers are always read
+ * and written atomically, {@link #getDistinctCountEstimate()} can be called at any time without
+ * observing partially updated registers.
+ */
+public final class ConcurrentExaLogLogAccumulator {
+
+  private static final VarHandle REGISTERS = MethodHandles.arrayElementVarHandle(long[].class);
+
+  private final byte t;
+  private final byte d;
+  private final byte p;
+
+  private final long[] registers;
+
+  private ConcurrentExaLogLogAccumulator(byte t, byte d, byte p) {
+    this.t = t;
+    this.d = d;
+    this.p = p;
+    this.registers = new long[1 << p];
+  }
+
+  /**
+   * Creates an empty accumulator.
+   *
+   * @param t the t-parameter
+   * @param d the d-parameter
+   * @param p the precision parameter
+   * @return a new accumulator
+   * @throws IllegalArgumentException if any of the parameters is invalid
+   */
+  public static ConcurrentExaLogLogAccumulator create(int t, int d, int p) {
+    ExaLogLog.checkTParameter(t);
+    ExaLogLog.checkDParameter(d, t);
+    ExaLogLog.checkPrecisionParameter(p, ExaLogLog.getMinP(), ExaLogLog.getMaxP(t));
+    return new ConcurrentExaLogLogAccumulator((byte) t, (byte) d, (byte) p);
+  }
+
+  /**
+   * Returns the t-parameter.
+   *
+   * @return the t-parameter
+   */
+  public int getT() {
+    return t;
+  }
+
+  /**
+   * Returns the d-parameter.
+   *
+   * @return the d-parameter
+   */
+  public int getD() {
+    return d;
+  }
+
+  /**
+   * Returns the precision parameter.
+   *
+   * @return the precision parameter
+   */
+  public int getP() {
+    return p;
+  }
+
+  /**
+   * Adds the given sketch to this accumulator.
+   *
+   * <p>This method may be called concurrently from multiple threads. The t-parameter of the added
+   * sketch must be equal and its d- and precision parameters must not be smaller than those of this
+   * accumulator. Otherwise, an {@link IllegalArgumentException} will be thrown. The added sketch
+   * must not be modified concurrently.
+   *
+   * @param other the sketch to be added
+   * @return this accumulator
+   * @throws NullPointerException if the argument is null
+   */
+  public ConcurrentExaLogLogAccumulator add(ExaLogLog other) {
+    requireNonNull(other, "null argument");
+    if (other.getT() != t) {
+      throw new IllegalArgumentException(
+          "merging of ExaLogLog sketches with different t-parameter is not possible");
+    }
+    if (other.getD() < d) {
+      throw new IllegalArgumentException("other has smaller d-parameter");
+    }
+    if (other.getP() < p) {
+      throw new IllegalArgumentException("other has smaller precision");
+    }
+    final int m = registers.length;
+    final byte[] otherState = other.peekState();
+    final PackedArrayHandler otherHandler =
+        PackedArray.getHandler(ExaLogLog.getRegisterBitSize(other.getT(), other.getD()));
+    final long downsizeThresholdU = ExaLogLog.computeDownsizeThresholdU(t, other.getP());
+    final long[] downsizeShifts = ExaLogLog.computeDownsizeShifts(t, other.getP(), p);
+    for (int registerIndex = 0; registerIndex < m; ++registerIndex) {
+      long otherR =
+          ExaLogLog.downsizeRegisters(
+              otherHandler,
+              otherState,
+              other.getD(),
+              d,
+              p,
+              registerIndex,
+              downsizeShifts,
+              downsizeThresholdU);
+      if (otherR != 0) {
+        mergeRegister(registerIndex, otherR);
+      }
+    }
+    return this;
+  }
+
+  private void mergeRegister(int registerIndex, long otherR) {
+    long thisR = (long) REGISTERS.getVolatile(registers, registerIndex);
+    while (true) {
+      long mergedR = ExaLogLog.mergeRegister(thisR, otherR, d);
+      if (mergedR == thisR) {
+        return;
+      }
+      long witnessR =
+          (long) REGISTERS.compareAndExchange(registers, registerIndex, thisR, mergedR);
+      if (witnessR == thisR) {
+        return;
+      }
+      thisR = witnessR;
+    }
+  }
+
+  /**
+   * Returns an estimate of the number of distinct elements added to this accumulator.
+   *
+   * <p>This method may be called concurrently with {@link #add(ExaLogLog)}. Each register is read
+   * atomically, but registers that are updated during the estimation may or may not be taken into
+   * account.
+   *
+   * @return estimated number of distinct elements
+   */
+  public double getDistinctCountEstimate() {
+    final int m = registers.length;
+    long agg = 0;
+    int[] b = new int[64];
+    for (int idx = 0; idx < m; ++idx) {
+      agg += ExaLogLog.contribute((long) REGISTERS.getVolatile(registers, idx), b, t, d, p);
+    }
+    return ExaLogLog.estimateFromCoefficients(agg, b, t, d, p, null);
+  }
+
+  /**
+   * Returns a new {@link ExaLogLog} sketch with the current state of this accumulator.
+   *
+   * <p>This method may be called concurrently with {@link #add(ExaLogLog)}. Each register is read
+   * atomically, but registers that are updated during the copy may or may not be taken into
+   * account.
+   *
+   * @return a new sketch
+   */
+  public ExaLogLog toExaLogLog() {
+    ExaLogLog sketch = ExaLogLog.create(t, d, p);
+    byte[] state = sketch.getState();
+    PackedArrayHandler handler = PackedArray.getHandler(ExaLogLog.getRegisterBitSize(t, d));
+    final int m = registers.length;
+    for (int idx = 0; idx < m; ++idx) {
+      long r = (long) REGISTERS.getVolatile(registers, idx);
+      if (r != 0) {
+        handler.set(state, idx, r);
+      }
+    }
+    return sketch;
+  }
+
+  /**
+   * Resets this accumulator to its initial state representing an empty set.
+   *
+   * <p>This method must not be called concurrently with any other method.
+   *
+   * @return this accumulator
+   */
+  public ConcurrentExaLogLogAccumulator reset() {
+    for (int idx = 0; idx < registers.length; ++idx) {
+      REGISTERS.setVolatile(registers, idx, 0L);
+    }
+    return this;
+  }
+}
@@ -0,0 +1,151 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed contributions of all possible register values to the ML equation coefficients and
+ * to the state change probability, which are otherwise computed by {@code ExaLogLog.contribute}.
+ *
+ * <p>Tables are only provided for configurations with at most 16 bits per register and t &le; 2,
+ * for which the table has at most 2^16 entries and the coefficient increments of a register can be
+ * packed into a single long value. They are computed on first use per t-, d-, and p-parameter.
+ */
+final class ContributionTable {
+
+  static final int MAX_REGISTER_BIT_SIZE = 16;
+
+  static final int MAX_T = 2;
+
+  // number of bits used for each coefficient increment, the increment is at most 2^t + 1
+  private static final int COUNT_BIT_SIZE = 4;
+
+  private static final ConcurrentHashMap<Integer, ContributionTable> TABLES =
+      new ConcurrentHashMap<>();
+
+  // register change probabilities multiplied by 2^(64 - p)
+  private final long[] scaledRegisterChangeProbabilities;
+
+  // largest coefficient index that is incremented
+  private final byte[] maxIndices;
+
+  // coefficient increments, starting with the largest index in the lowest bits
+  private final long[] packedCounts;
+
+  private ContributionTable(
+      long[] scaledRegisterChangeProbabilities, byte[] maxIndices, long[] packedCounts) {
+    this.scaledRegisterChangeProbabilities = scaledRegisterChangeProbabilities;
+    this.maxIndices = maxIndices;
+    this.packedCounts = packedCounts;
+  }
+
+  /**
+   * Returns the contribution table for the given parameters.
+   *
+   * @param t the t-parameter
+   * @param d the d-parameter
+   * @param p the precision parameter
+   * @return the contribution table or null, if the register space is too large
+   */
+  static ContributionTable get(int t, int d, int p) {
+    if (t > MAX_T || ExaLogLog.getRegisterBitSize(t, d) > MAX_REGISTER_BIT_SIZE) {
+      return null;
+    }
+    // no computeIfAbsent() with a lambda, which would add to the startup time of sketch creation,
+    // tables computed concurrently are equal and only one of them is kept
+    Integer key = (t << 16) | (d << 8) | p;
+    ContributionTable table = TABLES.get(key);
+    if (table == null) {
+      table = compute(t, d, p);
+      ContributionTable previous = TABLES.putIfAbsent(key, table);
+      if (previous != null) {
+        table = previous;
+      }
+    }
+    return table;
+  }
+
+  // visible for testing
+  static ContributionTable compute(int t, int d, int p) {
+    int numValues = 1 << ExaLogLog.getRegisterBitSize(t, d);
+    long[] scaledRegisterChangeProbabilities = new long[numValues];
+    byte[] maxIndices = new byte[numValues];
+    long[] packedCounts = new long[numValues];
+    int[] b = new int[64];
+    for (int r = 0; r < numValues; ++r) {
+      scaledRegisterChangeProbabilities[r] = ExaLogLog.contribute(r, b, t, d, p);
+      int u = r >>> d;
+      if (u != 0) {
+        // contribute() increments the coefficients with indices in [minIndex, maxIndex]
+        int maxIndex = Math.min(63 - t - p, (u - 1) >>> t);
+        int minIndex = Math.max(0, maxIndex - (d >>> t) - 1);
+        maxIndices[r] = (byte) maxIndex;
+        packedCounts[r] = packCounts(b, minIndex, maxIndex);
+      }
+    }
+    return new ContributionTable(scaledRegisterChangeProbabilities, maxIndices, packedCounts);
+  }
+
+  // packs and clears the coefficient increments with indices in [minIndex, maxIndex], this is a
+  // separate method, which is compiled early by the JIT, as the table construction happens on the
+  // first estimate, possibly in a cold JVM, and would otherwise be mostly interpreted
+  private static long packCounts(int[] b, int minIndex, int maxIndex) {
+    long packed = 0;
+    int shift = 0;
+    for (int i = maxIndex; i >= minIndex; --i) {
+      if (b[i] != 0) {
+        if (b[i] >>> COUNT_BIT_SIZE != 0 || shift >= 64) {
+          throw new IllegalStateException();
+        }
+        packed |= (long) b[i] << shift;
+        b[i] = 0;
+      }
+      shift += COUNT_BIT_SIZE;
+    }
+    return packed;
+  }
+
+  /**
+   * Returns the register change probability multiplied by 2^(64 - p) and adds the contribution of
+   * the given register value to the ML equation coefficients, if b is not null.
+   *
+   * @param r the register value
+   * @param b the ML equation coefficients, may be null
+   * @return the register change probability multiplied by 2^(64 - p)
+   */
+  long contribute(long r, int[] b) {
+    int idx = (int) r;
+    if (b != null) {
+      int i = maxIndices[idx];
+      for (long packed = packedCounts[idx]; packed != 0; packed >>>= COUNT_BIT_SIZE) {
+        b[i--] += (int) (packed & ((1 << COUNT_BIT_SIZE) - 1));
+      }
+    }
+    return scaledRegisterChangeProbabilities[idx];
+  }
+}
@@ -28,6 +28,11 @@ package com.dynatrace.exaloglogpaper;
 
 import static java.util.Objects.requireNonNull;
 
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 class DistinctCountUtil {
 
   private DistinctCountUtil() {}
@@ -69,6 +74,26 @@ class DistinctCountUtil {
 
   static double solveMaximumLikelihoodEquation(
       double a, int[] b, int n, double relativeErrorLimit, SolverStatistics solverStatistics) {
+    return solveMaximumLikelihoodEquation(
+        a, b, n, relativeErrorLimit, Integer.MAX_VALUE, solverStatistics);
+  }
+
+  /**
+   * Same as {@link #solveMaximumLikelihoodEquation(double, int[], int, double, SolverStatistics)},
+   * but performs at most the given number of Newton iterations.
+   *
+   * <p>The initial guess may exceed the solution. As the function is convex, the first Newton
+   * iteration then yields a value below the solution, from which the iteration increases
+   * monotonically. Without any iteration, a lower bound of the solution is returned. Therefore, if
+   * the iteration is stopped early, the returned value is never greater than the exact solution.
+   */
+  static double solveMaximumLikelihoodEquation(
+      double a,
+      int[] b,
+      int n,
+      double relativeErrorLimit,
+      int maxIterations,
+      SolverStatistics solverStatistics) {
 
     long sigma0 = 0;
     double sigma1 = 0;
@@ -91,9 +116,26 @@ class DistinctCountUtil {
     double x = sigma1 / aPowUMax;
 
     if (uMin < uMax) {
-      x = Math.expm1(Math.log1p(x) * (sigma0 / sigma1));
+      double lowerBound = Math.log1p(x) * (sigma0 / sigma1);
+      x = Math.expm1(lowerBound);
+      final double xLowerBound = x;
 
-      while (true) { // Newton iteration
+      // sigma0 / aPowUMax is an upper bound of log1p(x) at the solution. The initial guess is
+      // interpolated in log space between the lower and the upper bound using the empirically
+      // fitted weight r / (r + 3), where r is the logarithm of the ratio of both bounds. The weight
+      // tends to 0 for small distinct counts, where the lower bound is already tight, and saves up
+      // to two iterations for large distinct counts.
+      boolean isBelowSolution = true;
+      if (maxIterations > 0) {
+        double r = Math.log(sigma0 / (aPowUMax * lowerBound));
+        double xGuess = Math.expm1(lowerBound * Math.exp(r * r / (r + 3.)));
+        if (xGuess > x && xGuess < Double.POSITIVE_INFINITY) { // false, if a was 0 or on overflow
+          x = xGuess;
+          isBelowSolution = false;
+        }
+      }
+
+      for (int iteration = 0; iteration < maxIterations; ++iteration) { // Newton iteration
         if (solverStatistics != null) solverStatistics.iterationCounter += 1;
         double lambda = 1;
         double eta = 0;
@@ -119,7 +161,15 @@ class DistinctCountUtil {
         }
 
         double xPrime = aPowUMax * x;
-        if (!(phi > xPrime)) break;
+        if (!(phi > xPrime)) {
+          if (isBelowSolution) break;
+          // the initial guess exceeds the solution, as the function is convex, the Newton step
+          // ends below the solution
+          x = Math.max(x + x * ((phi - xPrime) / (psi + xPrime)), xLowerBound);
+          isBelowSolution = true;
+          continue;
+        }
+        isBelowSolution = true;
         double oldX = x;
         double eps = (phi - xPrime) / (psi + xPrime);
         x += x * eps;
@@ -141,6 +191,66 @@ class DistinctCountUtil {
     return ((0xFFFFFFFFFFFFFFFFL >>> v >>> token) << v) | idx;
   }
 
+  /**
+   * Computes the tokens of the hash values with indices in [fromIdx, toIdx) and writes them sorted
+   * by their unsigned values and deduplicated to the beginning of the token array.
+   *
+   * <p>The tokens are sorted using an LSD radix sort with 8-bit digits, which needs a buffer of
+   * the same size. Passes, for which all tokens have the same digit, are skipped. Apart from a
+   * fixed-size histogram, no memory is allocated.
+   *
+   * @param hashValues the hash values
+   * @param fromIdx the index of the first hash value (inclusive)
+   * @param toIdx the index of the last hash value (exclusive)
+   * @param v the token parameter
+   * @param tokens the token array, must have a length of at least toIdx - fromIdx
+   * @param buffer a temporary buffer, must have a length of at least toIdx - fromIdx
+   * @return the number of distinct tokens
+   */
+  static int computeSortedDistinctTokens(
+      long[] hashValues, int fromIdx, int toIdx, int v, int[] tokens, int[] buffer) {
+    int n = toIdx - fromIdx;
+    // histograms of all 4 digits
+    int[] counts = new int[4 << 8];
+    for (int i = 0; i < n; ++i) {
+      int token = computeToken(hashValues[fromIdx + i], v);
+      tokens[i] = token;
+      counts[token & 0xFF] += 1;
+      counts[0x100 | ((token >>> 8) & 0xFF)] += 1;
+      counts[0x200 | ((token >>> 16) & 0xFF)] += 1;
+      counts[0x300 | (token >>> 24)] += 1;
+    }
+    int[] src = tokens;
+    int[] dst = buffer;
+    for (int shift = 0; shift < 32 && n > 0; shift += 8) {
+      int offset = shift << 5;
+      if (counts[offset | ((src[0] >>> shift) & 0xFF)] == n) continue;
+      int sum = 0;
+      for (int k = offset; k < offset + 0x100; ++k) {
+        int count = counts[k];
+        counts[k] = sum;
+        sum += count;
+      }
+      for (int i = 0; i < n; ++i) {
+        int token = src[i];
+        dst[counts[offset | ((token >>> shift) & 0xFF)]++] = token;
+      }
+      int[] tmp = src;
+      src = dst;
+      dst = tmp;
+    }
+    // deduplication, which also moves the tokens back into the token array if needed, as the
+    // write position never exceeds the read position, this also works in place
+    int numDistinctTokens = 0;
+    for (int i = 0; i < n; ++i) {
+      int token = src[i];
+      if (numDistinctTokens == 0 || tokens[numDistinctTokens - 1] != token) {
+        tokens[numDistinctTokens++] = token;
+      }
+    }
+    return numDistinctTokens;
+  }
+
   static final int V_MAX = 26; // 32 - 6
   static final int V_MIN = 1;
 
@@ -250,10 +360,183 @@ class DistinctCountUtil {
       }
     }
 
+    return estimateFromTokenCoefficients(a, b, maxNonZeroIndex, v, solverStatistics);
+  }
+
+  /**
+   * Estimates the distinct count from tokens in arbitrary order.
+   *
+   * <p>In contrast to {@link #estimateDistinctCountFromTokens(TokenIterable, int)}, the tokens do
+   * not need to be ordered. Duplicate tokens are removed using a hash set instead, which gives
+   * exactly the same result as the estimation from the sorted tokens.
+   *
+   * @param tokenIterable an iterable over the tokens
+   * @param v the token parameter
+   * @return the estimated distinct count
+   */
+  static double estimateDistinctCountFromUnsortedTokens(TokenIterable tokenIterable, int v) {
+    requireNonNull(tokenIterable);
+    return estimateDistinctCountFromUnsortedTokens(tokenIterable.iterator(), v, 0, null);
+  }
+
+  /**
+   * Estimates the distinct count from the tokens in the given array, which may be in arbitrary
+   * order.
+   *
+   * @param tokens the tokens
+   * @param v the token parameter
+   * @return the estimated distinct count
+   */
+  static double estimateDistinctCountFromUnsortedTokens(int[] tokens, int v) {
+    requireNonNull(tokens);
+    TokenIterator tokenIterator =
+        new TokenIterator() {
+          private int idx = 0;
+
+          @Override
+          public boolean hasNext() {
+            return idx < tokens.length;
+          }
+
+          @Override
+          public int nextToken() {
+            return tokens[idx++];
+          }
+        };
+    return estimateDistinctCountFromUnsortedTokens(tokenIterator, v, tokens.length, null);
+  }
+
+  static double estimateDistinctCountFromUnsortedTokens(
+      TokenIterator tokenIterator,
+      int v,
+      int expectedNumTokens,
+      SolverStatistics solverStatistics) {
+    int maxNlzInTokenMinus1 = 63 - v;
+    long z = 1L << maxNlzInTokenMinus1;
+
+    long a = 0; // corresponds to 2^64
+    int[] b = new int[63];
+    int maxNonZeroIndex = -1;
+
+    // two tokens are duplicates if and only if they are equal, which is equivalent to the
+    // deduplication of sorted tokens with same most significant v bits
+    TokenSet tokenSet = new TokenSet(expectedNumTokens, v);
+    while (tokenIterator.hasNext()) {
+      int token = tokenIterator.nextToken();
+      if (!isValidToken(token, v)) continue;
+      if (tokenSet.add(token)) {
+        int j = Math.min(token & 0x3f, maxNlzInTokenMinus1);
+        b[j] += 1;
+        a -= z >>> j;
+        if (j > maxNonZeroIndex) maxNonZeroIndex = j;
+      }
+    }
+    return estimateFromTokenCoefficients(a, b, maxNonZeroIndex, v, solverStatistics);
+  }
+
+  // a set of valid tokens using open addressing with linear probing, -1 marks empty slots as it is
+  // never a valid token (nlz = 63 requires v <= 1, but 26 set index bits require v = 26), valid
+  // tokens can be negative for v = 26, the table is replaced by a bit set over all 2^(v + 6) tokens
+  // as soon as it would require as much memory as the bit set
+  static final class TokenSet {
+
+    private static final int EMPTY = -1;
+    private static final int MIN_NUM_SLOTS = 16;
+    // 2^(v + 1) int slots require as much memory as a bit set of 2^(v + 6) bits
+    static final int MAX_NUM_SLOTS = 2 << V_MAX;
+
+    private final int maxNumSlots;
+    private int[] slots; // null if the bit set is used
+    private long[] bits; // null as long as the slots are used
+    private int size;
+    private int shift; // 32 - log2(number of slots)
+
+    TokenSet(int expectedSize, int v) {
+      maxNumSlots = 2 << v;
+      int numSlots = computeInitialNumSlots(expectedSize);
+      if (numSlots >= maxNumSlots) {
+        bits = new long[maxNumSlots >>> 1];
+        return;
+      }
+      slots = new int[numSlots];
+      Arrays.fill(slots, EMPTY);
+      shift = Integer.numberOfLeadingZeros(numSlots) + 1;
+    }
+
+    // 4 times the highest one bit of the expected size keeps the load factor below 1/2, computed
+    // as long to avoid an overflow for large expected sizes and clamped to the table size limits
+    static int computeInitialNumSlots(int expectedSize) {
+      long numSlots = Long.highestOneBit(Math.max(1, expectedSize)) << 2;
+      return (int) Math.min(Math.max(numSlots, MIN_NUM_SLOTS), MAX_NUM_SLOTS);
+    }
+
+    // visible for testing
+    boolean usesBitSet() {
+      return bits != null;
+    }
+
+    // returns true, if the token has not been contained in the set
+    boolean add(int token) {
+      if (bits != null) {
+        long mask = 1L << token;
+        long word = bits[token >>> 6];
+        if ((word & mask) != 0) return false;
+        bits[token >>> 6] = word | mask;
+        return true;
+      }
+      int mask = slots.length - 1;
+      int pos = (token * 0x9E3779B9) >>> shift;
+      while (true) {
+        int slot = slots[pos];
+        if (slot == token) return false;
+        if (slot == EMPTY) break;
+        pos = (pos + 1) & mask;
+      }
+      slots[pos] = token;
+      size += 1;
+      if (size > (slots.length >>> 1)) {
+        grow();
+      }
+      return true;
+    }
+
+    private void grow() {
+      int[] oldSlots = slots;
+      if (oldSlots.length << 1 >= maxNumSlots) {
+        // the index of a valid token is less than 2^v, which is the number of bit set words
+        bits = new long[maxNumSlots >>> 1];
+        for (int token : oldSlots) {
+          if (token != EMPTY) {
+            bits[token >>> 6] |= 1L << token;
+          }
+        }
+        slots = null;
+        return;
+      }
+      slots = new int[oldSlots.length << 1];
+      Arrays.fill(slots, EMPTY);
+      shift -= 1;
+      int mask = slots.length - 1;
+      for (int token : oldSlots) {
+        if (token != EMPTY) {
+          int pos = (token * 0x9E3779B9) >>> shift;
+          while (slots[pos] != EMPTY) {
+            pos = (pos + 1) & mask;
+          }
+          slots[pos] = token;
+        }
+      }
+    }
+  }
+
+  // solves the ML equation for the coefficients accumulated from tokens
+  private static double estimateFromTokenCoefficients(
+      long a, int[] b, int maxNonZeroIndex, int v, SolverStatistics solverStatistics) {
     if (maxNonZeroIndex < 0) {
       // implies that all b[j] are zero
       return 0;
     }
+    int maxNlzInTokenMinus1 = 63 - v;
     return DistinctCountUtil.solveMaximumLikelihoodEquation(
             unsignedLongToDouble(a) * pow2(-maxNlzInTokenMinus1),
             b,
@@ -263,6 +546,137 @@ class DistinctCountUtil {
         * pow2(v + 1);
   }
 
+  // minimum number of tokens per task of the parallel estimation from tokens
+  static final int TOKEN_PARALLELISM_THRESHOLD = 1 << 16;
+
+  /**
+   * Estimates the distinct count from the sorted tokens in the given array. The tokens are
+   * processed in parallel using the given pool.
+   *
+   * @param tokens the sorted tokens, see {@link TokenIterable} for the required order
+   * @param v the token parameter
+   * @param pool the fork-join pool
+   * @return the estimated distinct count
+   */
+  static double estimateDistinctCountFromTokens(int[] tokens, int v, ForkJoinPool pool) {
+    requireNonNull(tokens);
+    return estimateDistinctCountFromTokens(IntBuffer.wrap(tokens), v, pool);
+  }
+
+  /**
+   * Estimates the distinct count from the sorted tokens between the position and the limit of the
+   * given buffer, which may also be a view of a memory-mapped file. The tokens are processed in
+   * parallel using the given pool. The position of the buffer is not changed.
+   *
+   * <p>As tokens are only deduplicated within runs of tokens with equal most significant v bits,
+   * the tokens are split into partitions at the beginning of such runs. The ML equation
+   * coefficients of all partitions are summed up, which gives exactly the same result as the
+   * sequential estimation.
+   *
+   * @param tokens the buffer containing the sorted tokens, see {@link TokenIterable} for the
+   *     required order
+   * @param v the token parameter
+   * @param pool the fork-join pool
+   * @return the estimated distinct count
+   */
+  static double estimateDistinctCountFromTokens(IntBuffer tokens, int v, ForkJoinPool pool) {
+    requireNonNull(tokens);
+    requireNonNull(pool);
+    TokenEstimationTask task =
+        new TokenEstimationTask(tokens, v, tokens.position(), tokens.limit());
+    if (tokens.remaining() <= TOKEN_PARALLELISM_THRESHOLD) {
+      task.compute();
+    } else {
+      pool.invoke(task);
+    }
+    return estimateFromTokenCoefficients(task.a, task.b, task.maxNonZeroIndex, v, null);
+  }
+
+  // returns the first index in [mid, to) of a valid token, whose most significant v bits differ
+  // from those of the last valid token before mid, or to, if there is no such token, invalid tokens
+  // are ignored anyway and may end up in either partition
+  private static int findTokenPartitionBoundary(
+      IntBuffer tokens, int v, int from, int mid, int to) {
+    int previousIdx = INVALID_TOKEN_INDEX;
+    for (int i = mid - 1; i >= from; --i) {
+      int token = tokens.get(i);
+      if (isValidToken(token, v)) {
+        previousIdx = token >>> 6;
+        break;
+      }
+    }
+    int boundary = mid;
+    while (boundary < to) {
+      int token = tokens.get(boundary);
+      if (isValidToken(token, v) && (token >>> 6) != previousIdx) break;
+      boundary += 1;
+    }
+    return boundary;
+  }
+
+  // accumulates the ML equation coefficients of the tokens with indices in [from, to), which must
+  // not split a run of tokens with equal most significant v bits
+  private static final class TokenEstimationTask extends RecursiveAction {
+
+    private final IntBuffer tokens;
+    private final int v;
+    private final int from;
+    private final int to;
+    private long a; // corresponds to 2^64
+    private final int[] b = new int[63];
+    private int maxNonZeroIndex = -1;
+
+    private TokenEstimationTask(IntBuffer tokens, int v, int from, int to) {
+      this.tokens = tokens;
+      this.v = v;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > TOKEN_PARALLELISM_THRESHOLD) {
+        int mid = findTokenPartitionBoundary(tokens, v, from, (from + to) >>> 1, to);
+        if (mid < to) {
+          TokenEstimationTask left = new TokenEstimationTask(tokens, v, from, mid);
+          TokenEstimationTask right = new TokenEstimationTask(tokens, v, mid, to);
+          invokeAll(left, right);
+          a = left.a + right.a;
+          for (int j = 0; j < b.length; ++j) {
+            b[j] = left.b[j] + right.b[j];
+          }
+          maxNonZeroIndex = Math.max(left.maxNonZeroIndex, right.maxNonZeroIndex);
+          return;
+        }
+      }
+      int maxNlzInTokenMinus1 = 63 - v;
+      long z = 1L << maxNlzInTokenMinus1;
+      int currentIdx = INVALID_TOKEN_INDEX;
+      long currentFlags = 0;
+      // direct access to the backing array, if available, is faster than buffer access
+      int[] array = tokens.hasArray() ? tokens.array() : null;
+      int arrayOffset = tokens.hasArray() ? tokens.arrayOffset() : 0;
+      for (int i = from; i < to; ++i) {
+        int token = (array != null) ? array[arrayOffset + i] : tokens.get(i);
+        if (!isValidToken(token, v)) continue;
+        int idx = token >>> 6;
+        if (currentIdx != idx) {
+          currentFlags = 0;
+          currentIdx = idx;
+        }
+        long mask = (1L << token);
+        if ((currentFlags & mask)
+            == 0L) { // deduplication of tokens with same most significant v bits
+          currentFlags |= mask;
+          int j = Math.min(token & 0x3f, maxNlzInTokenMinus1);
+          b[j] += 1;
+          a -= z >>> j;
+          if (j > maxNonZeroIndex) maxNonZeroIndex = j;
+        }
+      }
+    }
+  }
+
   static double unsignedLongToDouble(long l) {
     double d = l & 0x7fffffffffffffffL;
     if (l < 0) d += 0x1p63;
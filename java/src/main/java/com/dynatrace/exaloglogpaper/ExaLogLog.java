@@ -34,34 +34,97 @@ import com.dynatrace.hash4j.distinctcount.StateChangeObserver;
 import com.dynatrace.hash4j.util.PackedArray;
 import com.dynatrace.hash4j.util.PackedArray.PackedArrayHandler;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /** ExaLogLog sketch. */
 public class ExaLogLog {
 
-  private static final int V = V_MAX; // use 32-bit tokens (V + 6 == 32)
+  static final int V = V_MAX; // use 32-bit tokens (V + 6 == 32)
   private static final int MIN_P = 2;
   private static final int MAX_T = V - MIN_P; // the use of 32-bit tokens requires t + p <= v
 
+  // minimum number of registers per task of parallel operations, smaller sketches are processed
+  // sequentially
+  static final int PARALLELISM_THRESHOLD = 1 << 16;
+
+  /** An estimator for the number of distinct elements added to an {@link ExaLogLog} sketch. */
+  public interface Estimator {
+
+    /**
+     * Estimates the number of distinct elements added to the given sketch.
+     *
+     * @param sketch the sketch
+     * @return estimated number of distinct elements
+     */
+    double estimate(ExaLogLog sketch);
+  }
+
+  /**
+   * The maximum-likelihood estimator, which is the default estimator used by {@link
+   * #getDistinctCountEstimate()}.
+   */
+  public static final Estimator MAXIMUM_LIKELIHOOD_ESTIMATOR =
+      // not a method reference, as bootstrapping the lambda infrastructure during class
+      // initialization noticeably increases the startup time
+      new Estimator() {
+        @Override
+        public double estimate(ExaLogLog sketch) {
+          return sketch.getDistinctCountEstimate();
+        }
+      };
+
+  /**
+   * A closed-form estimator, which does not need any iteration.
+   *
+   * <p>Except for small distinct counts, the estimate is computed in constant time from the state
+   * change probability. In return, the estimation error is somewhat larger than that of the {@link
+   * #MAXIMUM_LIKELIHOOD_ESTIMATOR}. The lookup table needed for a given t- and d-parameter is
+   * computed on first use.
+   */
+  public static final Estimator CLOSED_FORM_ESTIMATOR = new ClosedFormEstimator();
+
   private final byte p;
   private final byte t;
   private final byte d;
 
   private final byte[] state;
 
-  private ExaLogLog(byte t, byte d, byte p, byte[] state) {
+  // sum of the register change probabilities multiplied by 2^(64 - p), modulo 2^64, which is zero
+  // for the initial state, see getStateChangeProbability()
+  private long stateChangeProbabilitySum;
+
+  // true, if the registers may have been modified directly through the state array since the sum
+  // was computed, in this case the sum is recomputed from all registers on the next access
+  private boolean stateChangeProbabilitySumStale;
+
+  // precomputed register contributions, null if the register space is too large or if no estimate
+  // has been computed yet, the table is not fetched on creation, as its construction would
+  // noticeably increase the startup time of applications that just create and update sketches
+  private ContributionTable contributionTable;
+
+  private ExaLogLog(
+      byte t,
+      byte d,
+      byte p,
+      byte[] state,
+      long stateChangeProbabilitySum,
+      boolean stateChangeProbabilitySumStale) {
     this.t = t;
     this.d = d;
     this.p = p;
     this.state = state;
+    this.stateChangeProbabilitySum = stateChangeProbabilitySum;
+    this.stateChangeProbabilitySumStale = stateChangeProbabilitySumStale;
   }
 
-  private static void checkTParameter(int t) {
+  static void checkTParameter(int t) {
     if (t < 0 || t > MAX_T) {
       throw new IllegalArgumentException("illegal T parameter");
     }
   }
 
-  private static void checkDParameter(int d, int t) {
+  static void checkDParameter(int d, int t) {
     if (d < 0 || d > getMaxD(t)) {
       throw new IllegalArgumentException("illegal D parameter");
     }
@@ -90,7 +153,9 @@ public class ExaLogLog {
         (byte) t,
         (byte) d,
         (byte) p,
-        PackedArray.getHandler(getRegisterBitSize(t, d)).create(getNumRegisters(p)));
+        PackedArray.getHandler(getRegisterBitSize(t, d)).create(getNumRegisters(p)),
+        0,
+        false);
   }
 
   /**
@@ -168,6 +233,12 @@ public class ExaLogLog {
    * <p>If the state is not valid (it was not retrieved using {@link #getState()} and the
    * corresponding t- and d-parameters were different) the behavior will be undefined.
    *
+   * <p>This method takes constant time. The state change probability is computed from all
+   * registers when it is needed for the first time and maintained incrementally afterwards.
+   * Therefore, if the given array is modified directly after that, {@link #getState()} must be
+   * called before, as otherwise the state change probability and estimates derived from it will be
+   * wrong.
+   *
    * @param t the t-parameter
    * @param d the d-parameter
    * @param state the state
@@ -184,7 +255,7 @@ public class ExaLogLog {
     if (p < MIN_P || p > getMaxP(t) || (((regBitSize << p) + 7) >>> 3) != state.length) {
       throw getUnexpectedStateLengthException();
     }
-    return new ExaLogLog((byte) t, (byte) d, (byte) p, state);
+    return new ExaLogLog((byte) t, (byte) d, (byte) p, state, 0, true);
   }
 
   /**
@@ -255,6 +326,40 @@ public class ExaLogLog {
     return DistinctCountUtil.computeToken(hashValue, V);
   }
 
+  /**
+   * Computes the tokens of the hash values within the given index range and writes them sorted and
+   * deduplicated to the beginning of the given token array.
+   *
+   * <p>The tokens are sorted by their unsigned values. The result is a compact sparse
+   * representation, which can be added to a sketch using {@link #addTokens(int[], int, int)}
+   * resulting in exactly the same state as adding all hash values. The token array and the buffer
+   * can be reused for subsequent calls.
+   *
+   * @param hashValues the 64-bit hash values
+   * @param fromIdx the index of the first hash value (inclusive)
+   * @param toIdx the index of the last hash value (exclusive)
+   * @param tokens the array the tokens are written to, must not be shorter than the index range
+   * @param buffer a temporary buffer, must not be shorter than the index range
+   * @return the number of distinct tokens
+   * @throws NullPointerException if any of the passed arrays is null
+   * @throws IllegalArgumentException if the index range is invalid or the token array or the
+   *     buffer is too short
+   */
+  public static int computeSortedDistinctTokens(
+      long[] hashValues, int fromIdx, int toIdx, int[] tokens, int[] buffer) {
+    requireNonNull(hashValues, "null argument");
+    requireNonNull(tokens, "null argument");
+    requireNonNull(buffer, "null argument");
+    if (fromIdx < 0 || fromIdx > toIdx || toIdx > hashValues.length) {
+      throw new IllegalArgumentException("illegal index range");
+    }
+    if (tokens.length < toIdx - fromIdx || buffer.length < toIdx - fromIdx) {
+      throw new IllegalArgumentException("array too short");
+    }
+    return DistinctCountUtil.computeSortedDistinctTokens(
+        hashValues, fromIdx, toIdx, V, tokens, buffer);
+  }
+
   /**
    * Adds a new element represented by a 32-bit token obtained from {@code computeToken(long)}.
    *
@@ -267,13 +372,60 @@ public class ExaLogLog {
     return add(DistinctCountUtil.reconstructHash(token, V));
   }
 
+  /**
+   * Adds all tokens within the given index range.
+   *
+   * @param tokens an array of 32-bit hash tokens
+   * @param fromIdx the index of the first token (inclusive)
+   * @param toIdx the index of the last token (exclusive)
+   * @return this sketch
+   */
+  public ExaLogLog addTokens(int[] tokens, int fromIdx, int toIdx) {
+    for (int i = fromIdx; i < toIdx; ++i) {
+      addToken(tokens[i]);
+    }
+    return this;
+  }
+
   /**
    * Returns an estimate of the number of distinct elements added to this sketch.
    *
    * @return estimated number of distinct elements
    */
   public double getDistinctCountEstimate() {
-    return getDistinctCountEstimate(null);
+    return getDistinctCountEstimate((SolverStatistics) null);
+  }
+
+  /**
+   * Returns an estimate of the number of distinct elements added to this sketch using the given
+   * estimator.
+   *
+   * @param estimator the estimator
+   * @return estimated number of distinct elements
+   * @throws NullPointerException if the estimator is null
+   */
+  public double getDistinctCountEstimate(Estimator estimator) {
+    requireNonNull(estimator, "null argument");
+    return estimator.estimate(this);
+  }
+
+  /**
+   * Returns a fast estimate of the number of distinct elements added to this sketch.
+   *
+   * <p>The maximum likelihood equation is solved using Newton iteration, which stops as soon as the
+   * relative change of the last step is not greater than the given limit or after the given number
+   * of iterations. As the iteration approaches the solution from below, the result is never greater
+   * than that of {@link #getDistinctCountEstimate()}, which corresponds to a relative error limit
+   * of 0 and an unlimited number of iterations.
+   *
+   * @param relativeErrorLimit the relative error limit
+   * @param maxIterations the maximum number of iterations
+   * @return estimated number of distinct elements
+   * @throws IllegalArgumentException if the relative error limit or the maximum number of
+   *     iterations is negative
+   */
+  public double getDistinctCountEstimate(double relativeErrorLimit, int maxIterations) {
+    return getDistinctCountEstimate(relativeErrorLimit, maxIterations, null);
   }
 
   /**
@@ -282,7 +434,97 @@ public class ExaLogLog {
    * @return the copy
    */
   public ExaLogLog copy() {
-    return new ExaLogLog(t, d, p, Arrays.copyOf(state, state.length));
+    return new ExaLogLog(
+        t,
+        d,
+        p,
+        Arrays.copyOf(state, state.length),
+        stateChangeProbabilitySum,
+        stateChangeProbabilitySumStale);
+  }
+
+  /**
+   * Copies the state of this sketch into the given target sketch, which must have the same
+   * parameters.
+   *
+   * @param target the target sketch
+   * @return the target sketch
+   * @throws NullPointerException if the target sketch is null
+   * @throws IllegalArgumentException if the parameters of the target sketch are not equal
+   */
+  public ExaLogLog copyInto(ExaLogLog target) {
+    requireNonNull(target, "null argument");
+    if (target.t != t || target.d != d || target.p != p) {
+      throw new IllegalArgumentException("parameters of target sketch are not equal");
+    }
+    if (target != this) {
+      System.arraycopy(state, 0, target.state, 0, state.length);
+      target.stateChangeProbabilitySum = stateChangeProbabilitySum;
+      target.stateChangeProbabilitySumStale = stateChangeProbabilitySumStale;
+    }
+    return target;
+  }
+
+  /**
+   * Downsizes this sketch into the given target sketch, whose previous state is overwritten.
+   *
+   * <p>The target sketch must have the same t-parameter and must not have a larger d-parameter or
+   * a larger precision parameter. The result is the same as that of {@link #downsize(int, int)}
+   * with the parameters of the target sketch.
+   *
+   * @param target the target sketch
+   * @return the target sketch
+   * @throws NullPointerException if the target sketch is null
+   * @throws IllegalArgumentException if the parameters of the target sketch are incompatible
+   */
+  public ExaLogLog downsizeInto(ExaLogLog target) {
+    checkDownsizeTarget(target);
+    if (target.d == d && target.p == p) {
+      return copyInto(target);
+    } else {
+      return target.reset().add(this);
+    }
+  }
+
+  private void checkDownsizeTarget(ExaLogLog target) {
+    requireNonNull(target, "null argument");
+    if (target.t != t) {
+      throw new IllegalArgumentException("t-parameter is not equal");
+    }
+    if (target.d > d) {
+      throw new IllegalArgumentException("target has larger d-parameter");
+    }
+    if (target.p > p) {
+      throw new IllegalArgumentException("target has larger precision");
+    }
+  }
+
+  /**
+   * Merges two sketches into the given target sketch, whose previous state is overwritten.
+   *
+   * <p>The target sketch must have the same t-parameter and must not have a larger d-parameter or
+   * a larger precision parameter than any of both sketches. The target sketch may be one of both
+   * sketches.
+   *
+   * @param target the target sketch
+   * @param sketch1 the first sketch
+   * @param sketch2 the second sketch
+   * @return the target sketch
+   * @throws NullPointerException if any of the arguments is null
+   * @throws IllegalArgumentException if the parameters of the target sketch are incompatible
+   */
+  public static ExaLogLog mergeInto(ExaLogLog target, ExaLogLog sketch1, ExaLogLog sketch2) {
+    requireNonNull(sketch1, "first sketch was null");
+    requireNonNull(sketch2, "second sketch was null");
+    sketch1.checkDownsizeTarget(target);
+    sketch2.checkDownsizeTarget(target);
+    if (target == sketch1) {
+      return target.add(sketch2);
+    } else if (target == sketch2) {
+      return target.add(sketch1);
+    } else {
+      return sketch1.downsizeInto(target).add(sketch2);
+    }
   }
 
   private static long shiftRight(long s, long delta) {
@@ -293,30 +535,66 @@ public class ExaLogLog {
     }
   }
 
-  private static long computeDownsizeThresholdU(int t, int fromP) {
+  static long computeDownsizeThresholdU(int t, int fromP) {
     return ((64L - t - fromP) << t) + 1;
   }
 
-  private static long downsizeRegister(
-      long r, int t, int fromD, int toD, int fromP, int toP, int subIdx, long downsizeThresholdU) {
+  // the shift applied when downsizing a register only depends on the bit length of its sub-index,
+  // which is the index of the returned array
+  static long[] computeDownsizeShifts(int t, int fromP, int toP) {
+    long[] shifts = new long[fromP - toP + 1];
+    for (int subIndexBitLength = 0; subIndexBitLength < shifts.length; ++subIndexBitLength) {
+      shifts[subIndexBitLength] = (long) ((fromP - toP) - subIndexBitLength) << t;
+    }
+    return shifts;
+  }
+
+  static long downsizeRegister(long r, int fromD, int toD, long shift, long downsizeThresholdU) {
     long u = r >>> fromD;
     r >>>= fromD - toD;
-    if (u >= downsizeThresholdU) {
-      long shift = ((fromP - toP) - (32 - Integer.numberOfLeadingZeros(subIdx))) << t;
-      if (shift > 0) {
-        long numBitsToShift = toD + downsizeThresholdU - u;
-        if (numBitsToShift > 0) {
-          long mask = 0xFFFFFFFFFFFFFFFFL << numBitsToShift;
-          r = (mask & r) | shiftRight((r & ~mask), shift);
-        }
-        r += shift << toD;
+    if (u >= downsizeThresholdU && shift > 0) {
+      long numBitsToShift = toD + downsizeThresholdU - u;
+      if (numBitsToShift > 0) {
+        long mask = 0xFFFFFFFFFFFFFFFFL << numBitsToShift;
+        r = (mask & r) | shiftRight((r & ~mask), shift);
       }
+      r += shift << toD;
     }
     return r;
   }
 
+  // merges all registers of the given state that are mapped to the same register when downsizing,
+  // sub-indices are processed in groups of equal bit length sharing the same shift
+  static long downsizeRegisters(
+      PackedArrayHandler fromHandler,
+      byte[] fromState,
+      int fromD,
+      int toD,
+      int toP,
+      int registerIndex,
+      long[] downsizeShifts,
+      long downsizeThresholdU) {
+    long mergedR = 0;
+    int subIndex = 0;
+    for (int subIndexBitLength = 0;
+        subIndexBitLength < downsizeShifts.length;
+        ++subIndexBitLength) {
+      final long shift = downsizeShifts[subIndexBitLength];
+      final int subIndexEnd = 1 << subIndexBitLength;
+      for (; subIndex < subIndexEnd; ++subIndex) {
+        long r = fromHandler.get(fromState, registerIndex + (subIndex << toP));
+        if (r != 0) { // zero registers do not contribute
+          mergedR =
+              mergeRegister(
+                  mergedR, downsizeRegister(r, fromD, toD, shift, downsizeThresholdU), toD);
+        }
+      }
+    }
+    return mergedR;
+  }
+
   // see Algorithm 5 in paper
-  private static long mergeRegister(long r1, long r2, int d) {
+  static long mergeRegister(long r1, long r2, int d) {
     long u1 = r1 >>> d;
     long u2 = r2 >>> d;
     if (u1 > u2 && u2 > 0) {
@@ -341,6 +619,63 @@ public class ExaLogLog {
    * @throws NullPointerException if the argument is null
    */
   public ExaLogLog add(ExaLogLog other) {
+    checkMergeable(other);
+    stateChangeProbabilitySum += mergeRegisters(other, 0, getNumRegisters(p), state, 0, null);
+    return this;
+  }
+
+  /**
+   * Adds another sketch and reinitializes the given {@link MartingaleEstimator}.
+   *
+   * <p>Merging invalidates a martingale estimator. This method sets the estimator to the standard
+   * distinct count estimate and the state change probability of the merged sketch, which are
+   * computed in the same pass over the registers as the merge itself. The estimator can then be
+   * further updated using {@link #add(long, MartingaleEstimator)}.
+   *
+   * @param other the other sketch
+   * @param martingaleEstimator the martingale estimator
+   * @return this sketch
+   * @throws NullPointerException if any of the arguments is null
+   */
+  public ExaLogLog add(ExaLogLog other, MartingaleEstimator martingaleEstimator) {
+    checkMergeable(other);
+    requireNonNull(martingaleEstimator, "null argument");
+    int[] b = new int[64];
+    // all registers are scanned anyway, which also makes a stale sum valid again
+    stateChangeProbabilitySum = mergeRegisters(other, 0, getNumRegisters(p), state, 0, b);
+    stateChangeProbabilitySumStale = false;
+    martingaleEstimator.set(
+        estimateFromCoefficients(stateChangeProbabilitySum, b, t, d, p, null),
+        getStateChangeProbability());
+    return this;
+  }
+
+  /**
+   * Adds another sketch. The registers are merged in parallel using the given pool.
+   *
+   * <p>The result is exactly the same as that of {@link #add(ExaLogLog)}. Small sketches are
+   * merged sequentially.
+   *
+   * @param other the other sketch
+   * @param pool the fork-join pool
+   * @return this sketch
+   * @throws NullPointerException if any of the arguments is null
+   */
+  public ExaLogLog add(ExaLogLog other, ForkJoinPool pool) {
+    checkMergeable(other);
+    requireNonNull(pool, "null argument");
+    final int m = getNumRegisters(p);
+    if (m <= PARALLELISM_THRESHOLD) {
+      stateChangeProbabilitySum += mergeRegisters(other, 0, m, state, 0, null);
+    } else {
+      MergeTask task = new MergeTask(this, other, 0, m);
+      pool.invoke(task);
+      stateChangeProbabilitySum += task.stateChangeProbabilitySumDelta;
+    }
+    return this;
+  }
+
+  private void checkMergeable(ExaLogLog other) {
     requireNonNull(other, "null argument");
     if (other.t != t) {
       throw new IllegalArgumentException(
@@ -352,56 +687,109 @@ public class ExaLogLog {
     if (other.p < p) {
       throw new IllegalArgumentException("other has smaller precision");
     }
-    final int m = getNumRegisters(p);
+  }
+
+  // merges the registers of the other sketch with indices in [fromIdx, toIdx) into the given
+  // target state, which holds the registers of this sketch starting at index targetFromIdx, and
+  // returns the change of the scaled state change probability sum, if b is not null, the ML
+  // equation coefficients of the merged registers are accumulated in b and the scaled state change
+  // probability sum of the merged registers is returned instead
+  private long mergeRegisters(
+      ExaLogLog other, int fromIdx, int toIdx, byte[] targetState, int targetFromIdx, int[] b) {
     PackedArrayHandler handler = getPackedArrayHandler();
+    long sum = 0;
     if (other.d == d && other.p == p) {
       // fast path if register parameters are equal and no downsizing is needed
-      for (int registerIndex = 0; registerIndex < m; ++registerIndex) {
-        long thisR = handler.get(state, registerIndex);
+      for (int registerIndex = fromIdx; registerIndex < toIdx; ++registerIndex) {
+        long thisR = handler.get(targetState, registerIndex - targetFromIdx);
         long otherR = handler.get(other.state, registerIndex);
         long mergedR = mergeRegister(thisR, otherR, d);
         if (thisR != mergedR) {
-          handler.set(state, registerIndex, mergedR);
+          handler.set(targetState, registerIndex - targetFromIdx, mergedR);
+          if (b == null) {
+            sum +=
+                getRegisterChangeProbabilityScaled(mergedR)
+                    - getRegisterChangeProbabilityScaled(thisR);
+          }
+        }
+        if (b != null) {
+          sum += contribute(mergedR, b);
         }
       }
     } else {
       PackedArrayHandler otherHandler = other.getPackedArrayHandler();
-      final int maxSubIndex = 1 << (other.p - p);
       final long downsizeThresholdU = computeDownsizeThresholdU(t, other.p);
-      for (int registerIndex = 0; registerIndex < m; ++registerIndex) {
+      final long[] downsizeShifts = computeDownsizeShifts(t, other.p, p);
+      for (int registerIndex = fromIdx; registerIndex < toIdx; ++registerIndex) {
         long mergedR =
-            downsizeRegister(
-                otherHandler.get(other.state, registerIndex),
-                t,
+            downsizeRegisters(
+                otherHandler,
+                other.state,
                 other.d,
                 d,
-                other.p,
                 p,
-                0,
+                registerIndex,
+                downsizeShifts,
                 downsizeThresholdU);
-        for (int subIndex = 1; subIndex < maxSubIndex; ++subIndex) {
-          long otherR =
-              downsizeRegister(
-                  otherHandler.get(other.state, registerIndex + (subIndex << p)),
-                  t,
-                  other.d,
-                  d,
-                  other.p,
-                  p,
-                  subIndex,
-                  downsizeThresholdU);
-          mergedR = mergeRegister(mergedR, otherR, d);
-        }
         if (mergedR != 0) {
-          final long thisR = handler.get(state, registerIndex);
+          final long thisR = handler.get(targetState, registerIndex - targetFromIdx);
           mergedR = mergeRegister(mergedR, thisR, d);
           if (thisR != mergedR) {
-            handler.set(state, registerIndex, mergedR);
+            handler.set(targetState, registerIndex - targetFromIdx, mergedR);
+            if (b == null) {
+              sum +=
+                  getRegisterChangeProbabilityScaled(mergedR)
+                      - getRegisterChangeProbabilityScaled(thisR);
+            }
           }
+        } else if (b != null) {
+          mergedR = handler.get(targetState, registerIndex - targetFromIdx);
+        }
+        if (b != null) {
+          sum += contribute(mergedR, b);
         }
       }
     }
-    return this;
+    return sum;
+  }
+
+  // merges a register range of the other sketch. Leaves work on a private copy of their byte range
+  // of the state, as register writes may touch neighboring bytes. As the range boundaries are
+  // multiples of PARALLELISM_THRESHOLD, which is a multiple of 8, the byte ranges are disjoint.
+  private static final class MergeTask extends RecursiveAction {
+
+    private final ExaLogLog sketch;
+    private final ExaLogLog other;
+    private final int fromIdx;
+    private final int toIdx;
+    private long stateChangeProbabilitySumDelta;
+
+    private MergeTask(ExaLogLog sketch, ExaLogLog other, int fromIdx, int toIdx) {
+      this.sketch = sketch;
+      this.other = other;
+      this.fromIdx = fromIdx;
+      this.toIdx = toIdx;
+    }
+
+    @Override
+    protected void compute() {
+      if (toIdx - fromIdx <= PARALLELISM_THRESHOLD) {
+        int bitSize = getRegisterBitSize(sketch.t, sketch.d);
+        int fromByte = (int) (((long) fromIdx * bitSize) >>> 3);
+        int toByte = (int) (((long) toIdx * bitSize) >>> 3);
+        byte[] localState = Arrays.copyOfRange(sketch.state, fromByte, toByte);
+        stateChangeProbabilitySumDelta =
+            sketch.mergeRegisters(other, fromIdx, toIdx, localState, fromIdx, null);
+        System.arraycopy(localState, 0, sketch.state, fromByte, localState.length);
+      } else {
+        int midIdx = (fromIdx + toIdx) >>> 1;
+        MergeTask left = new MergeTask(sketch, other, fromIdx, midIdx);
+        MergeTask right = new MergeTask(sketch, other, midIdx, toIdx);
+        invokeAll(left, right);
+        stateChangeProbabilitySumDelta =
+            left.stateChangeProbabilitySumDelta + right.stateChangeProbabilitySumDelta;
+      }
+    }
   }
 
   /**
@@ -423,6 +811,30 @@ public class ExaLogLog {
     }
   }
 
+  /**
+   * Returns a downsized copy of this sketch with a precision that is not larger than the given
+   * precision parameter. The registers are computed in parallel using the given pool.
+   *
+   * <p>The result is exactly the same as that of {@link #downsize(int, int)}.
+   *
+   * @param d the d-parameter used for downsizing
+   * @param p the precision parameter used for downsizing
+   * @param pool the fork-join pool
+   * @return the downsized copy
+   * @throws IllegalArgumentException if the precision parameter is invalid
+   * @throws NullPointerException if the pool is null
+   */
+  public ExaLogLog downsize(int d, int p, ForkJoinPool pool) {
+    checkPrecisionParameter(p, getMinP(), getMaxP(t));
+    checkDParameter(d, t);
+    requireNonNull(pool, "null argument");
+    if (p >= this.p && d >= this.d) {
+      return copy();
+    } else {
+      return create(t, d, p).add(this, pool);
+    }
+  }
+
   /**
    * Resets this sketch to its initial state representing an empty set.
    *
@@ -430,20 +842,37 @@ public class ExaLogLog {
    */
   public ExaLogLog reset() {
     Arrays.fill(state, (byte) 0);
+    stateChangeProbabilitySum = 0;
+    stateChangeProbabilitySumStale = false;
     return this;
   }
 
   /**
    * Returns a reference to the internal state of this sketch.
    *
-   * <p>The returned state is never {@code null}.
+   * <p>The returned state is never {@code null}. It may be modified directly, in which case the
+   * state change probability, which is otherwise maintained incrementally, is recomputed from all
+   * registers when it is needed the next time. Modifications made after the state change
+   * probability has been accessed again require another call of this method.
    *
    * @return the internal state of this sketch
    */
   public byte[] getState() {
+    stateChangeProbabilitySumStale = true;
     return state;
   }
 
+  // returns the internal state without invalidating the state change probability, callers that
+  // modify the returned array must call invalidateStateChangeProbabilitySum() afterwards
+  byte[] peekState() {
+    return state;
+  }
+
+  // lets the state change probability be recomputed from all registers on the next access
+  void invalidateStateChangeProbabilitySum() {
+    stateChangeProbabilitySumStale = true;
+  }
+
   /**
    * Returns the precision parameter of this sketch.
    *
@@ -480,10 +909,11 @@ public class ExaLogLog {
         rNew |= ((1L << d) | (rOld & ((1L << d) - 1))) >>> delta;
       }
       registerAccess.set(state, idx, rNew);
+      long decrement =
+          getRegisterChangeProbabilityScaled(rOld) - getRegisterChangeProbabilityScaled(rNew);
+      stateChangeProbabilitySum -= decrement;
       if (martingaleEstimator != null) {
-        martingaleEstimator.decrementStateChangeProbability(
-            (getRegisterChangeProbabilityScaled(rOld) - getRegisterChangeProbabilityScaled(rNew))
-                * 0x1p-64);
+        martingaleEstimator.decrementStateChangeProbability(decrement * 0x1p-64);
       }
     } else {
       if (delta < 0 && d + delta >= 0) {
@@ -491,8 +921,9 @@ public class ExaLogLog {
         rNew |= (1L << (d + delta));
         if (rNew != rOld) {
           registerAccess.set(state, idx, rNew);
+          int q = 63 - t - p;
+          stateChangeProbabilitySum -= 1L << Math.max(q - nlz, 0);
           if (martingaleEstimator != null) {
-            int q = 63 - t - p;
             martingaleEstimator.decrementStateChangeProbability(pow2(Math.max(q - nlz, 0) - 64));
           }
         }
@@ -519,16 +950,16 @@ public class ExaLogLog {
   /**
    * Returns the probability of an internal state change when a new distinct element is added.
    *
+   * <p>The probability is maintained incrementally by all update and merge operations and is
+   * therefore returned in constant time, unless the sketch was obtained by {@link #wrap(int, int,
+   * byte[])} or its state was accessed using {@link #getState()} since the last call, in which case
+   * it is recomputed from all registers.
+   *
    * @return the state change probability
    */
   public double getStateChangeProbability() {
-    int m = getNumRegisters(p);
-    PackedArrayHandler registerAccess = getPackedArrayHandler();
-    long first = getRegisterChangeProbabilityScaled(registerAccess.get(state, 0));
-    long sum = first;
-    for (int idx = 1; idx < m; ++idx) {
-      sum += getRegisterChangeProbabilityScaled(registerAccess.get(state, idx));
-    }
+    long sum = getStateChangeProbabilitySum();
+    long first = getRegisterChangeProbabilityScaled(getPackedArrayHandler().get(state, 0));
     // the sum can be zero because of two reasons:
     // 1) all registers are saturated and have therefore zero change probability yielding zero
     // overall change probability
@@ -543,9 +974,39 @@ public class ExaLogLog {
     }
   }
 
+  // returns the sum of the scaled register change probabilities, which is recomputed from all
+  // registers if they may have been modified directly through the state array
+  private long getStateChangeProbabilitySum() {
+    if (stateChangeProbabilitySumStale) {
+      int m = getNumRegisters(p);
+      PackedArrayHandler registerAccess = getPackedArrayHandler();
+      long sum = 0;
+      for (int idx = 0; idx < m; ++idx) {
+        sum += getRegisterChangeProbabilityScaled(registerAccess.get(state, idx));
+      }
+      stateChangeProbabilitySum = sum;
+      stateChangeProbabilitySumStale = false;
+    }
+    return stateChangeProbabilitySum;
+  }
+
   // register change probability multiplied by 2^(64 - p)
   private long getRegisterChangeProbabilityScaled(long r) {
-    return contribute(r, null, t, d, p);
+    return contribute(r, null);
+  }
+
+  private void fetchContributionTable() {
+    if (contributionTable == null) {
+      contributionTable = ContributionTable.get(t, d, p);
+    }
+  }
+
+  // same as contribute(r, b, t, d, p), but uses the precomputed table if available
+  long contribute(long r, int[] b) {
+    if (contributionTable != null) {
+      return contributionTable.contribute(r, b);
+    }
+    return contribute(r, b, t, d, p);
   }
 
   // computation of ML equation coefficients
@@ -582,14 +1043,104 @@ public class ExaLogLog {
   }
 
   double getDistinctCountEstimate(SolverStatistics solverStatistics) {
+    return getDistinctCountEstimate(0., Integer.MAX_VALUE, solverStatistics);
+  }
+
+  double getDistinctCountEstimate(
+      double relativeErrorLimit, int maxIterations, SolverStatistics solverStatistics) {
+    if (!(relativeErrorLimit >= 0)) {
+      throw new IllegalArgumentException("illegal relative error limit");
+    }
+    if (maxIterations < 0) {
+      throw new IllegalArgumentException("illegal maximum number of iterations");
+    }
     int m = getNumRegisters(p);
+    fetchContributionTable();
 
     long agg = 0;
     int[] b = new int[64];
     PackedArrayHandler registerAccess = getPackedArrayHandler();
     for (int idx = 0; idx < m; idx += 1) {
-      agg += contribute(registerAccess.get(state, idx), b, t, d, p);
+      agg += contribute(registerAccess.get(state, idx), b);
+    }
+    return estimateFromCoefficients(
+        agg, b, t, d, p, relativeErrorLimit, maxIterations, solverStatistics);
+  }
+
+  /**
+   * Returns an estimate of the number of distinct elements added to this sketch. The registers are
+   * scanned in parallel using the given pool.
+   *
+   * <p>The result is exactly the same as that of {@link #getDistinctCountEstimate()}. Small
+   * sketches are processed sequentially.
+   *
+   * @param pool the fork-join pool
+   * @return estimated number of distinct elements
+   * @throws NullPointerException if the pool is null
+   */
+  public double getDistinctCountEstimate(ForkJoinPool pool) {
+    requireNonNull(pool, "null argument");
+    int m = getNumRegisters(p);
+    if (m <= PARALLELISM_THRESHOLD) {
+      return getDistinctCountEstimate();
+    }
+    fetchContributionTable();
+    ContributionTask task = new ContributionTask(this, 0, m);
+    pool.invoke(task);
+    return estimateFromCoefficients(task.agg, task.b, t, d, p, null);
+  }
+
+  // accumulates the ML equation coefficients of a register range, the coefficients of subranges
+  // are summed up, which gives exactly the same result as a single sequential pass
+  private static final class ContributionTask extends RecursiveAction {
+
+    private final ExaLogLog sketch;
+    private final int fromIdx;
+    private final int toIdx;
+    private long agg;
+    private final int[] b = new int[64];
+
+    private ContributionTask(ExaLogLog sketch, int fromIdx, int toIdx) {
+      this.sketch = sketch;
+      this.fromIdx = fromIdx;
+      this.toIdx = toIdx;
+    }
+
+    @Override
+    protected void compute() {
+      if (toIdx - fromIdx <= PARALLELISM_THRESHOLD) {
+        PackedArrayHandler registerAccess = sketch.getPackedArrayHandler();
+        for (int idx = fromIdx; idx < toIdx; ++idx) {
+          agg += sketch.contribute(registerAccess.get(sketch.state, idx), b);
+        }
+      } else {
+        int midIdx = (fromIdx + toIdx) >>> 1;
+        ContributionTask left = new ContributionTask(sketch, fromIdx, midIdx);
+        ContributionTask right = new ContributionTask(sketch, midIdx, toIdx);
+        invokeAll(left, right);
+        agg = left.agg + right.agg;
+        for (int i = 0; i < 64; ++i) {
+          b[i] = left.b[i] + right.b[i];
+        }
+      }
     }
+  }
+
+  // computes the distinct count estimate from the accumulated ML equation coefficients
+  static double estimateFromCoefficients(
+      long agg, int[] b, int t, int d, int p, SolverStatistics solverStatistics) {
+    return estimateFromCoefficients(agg, b, t, d, p, 0., Integer.MAX_VALUE, solverStatistics);
+  }
+
+  static double estimateFromCoefficients(
+      long agg,
+      int[] b,
+      int t,
+      int d,
+      int p,
+      double relativeErrorLimit,
+      int maxIterations,
+      SolverStatistics solverStatistics) {
     if (agg == 0) {
       // agg can be zero because of two reasons:
       // 1) all registers are saturated, which implies b[63 - t - p] to be nonzero -> estimate is
@@ -598,11 +1149,13 @@ public class ExaLogLog {
       return (b[63 - t - p] == 0) ? 0 : Double.POSITIVE_INFINITY;
     }
 
+    int m = getNumRegisters(p);
     double factor = m << (t + 1);
     double a = unsignedLongToDouble(agg) * 0x1p-64 * factor;
 
     return factor
-        * DistinctCountUtil.solveMaximumLikelihoodEquation(a, b, 63 - p - t, 0., solverStatistics)
+        * DistinctCountUtil.solveMaximumLikelihoodEquation(
+            a, b, 63 - p - t, relativeErrorLimit, maxIterations, solverStatistics)
         / (1 + ML_BIAS_CORRECTION_CONSTANTS[t][d] / m);
   }
 }
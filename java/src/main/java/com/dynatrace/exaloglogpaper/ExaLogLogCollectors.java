@@ -0,0 +1,167 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static java.util.Objects.requireNonNull;
+
+import com.dynatrace.hash4j.hashing.Hasher64;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Factories for {@link Collector}s and reductions of streams into {@link ExaLogLog} sketches.
+ *
+ * <p>All of them work correctly with parallel streams. Partial results are combined using {@link
+ * ExaLogLog#add(ExaLogLog)}, which merges in place and does not copy any sketch.
+ */
+public final class ExaLogLogCollectors {
+
+  private ExaLogLogCollectors() {}
+
+  private static void checkParameters(int t, int d, int p) {
+    ExaLogLog.checkTParameter(t);
+    ExaLogLog.checkDParameter(d, t);
+    ExaLogLog.checkPrecisionParameter(p, ExaLogLog.getMinP(), ExaLogLog.getMaxP(t));
+  }
+
+  /**
+   * Returns a {@link Collector} that adds {@link Long} elements hashed with the given hasher to a
+   * new {@link ExaLogLog} sketch.
+   *
+   * @param t the t-parameter
+   * @param d the d-parameter
+   * @param p the precision parameter
+   * @param hasher the hasher
+   * @return the collector
+   * @throws NullPointerException if the hasher is null
+   * @throws IllegalArgumentException if any of the parameters is invalid
+   */
+  public static Collector<Long, ?, ExaLogLog> longsToExaLogLog(
+      int t, int d, int p, Hasher64 hasher) {
+    checkParameters(t, d, p);
+    requireNonNull(hasher, "null argument");
+    return Collector.of(
+        () -> ExaLogLog.create(t, d, p),
+        (sketch, value) -> sketch.add(hasher.hashLongToLong(value)),
+        ExaLogLog::add,
+        Collector.Characteristics.UNORDERED,
+        Collector.Characteristics.IDENTITY_FINISH);
+  }
+
+  /**
+   * Returns a {@link Collector} that adds byte array elements hashed with the given hasher to a new
+   * {@link ExaLogLog} sketch.
+   *
+   * @param t the t-parameter
+   * @param d the d-parameter
+   * @param p the precision parameter
+   * @param hasher the hasher
+   * @return the collector
+   * @throws NullPointerException if the hasher is null
+   * @throws IllegalArgumentException if any of the parameters is invalid
+   */
+  public static Collector<byte[], ?, ExaLogLog> bytesToExaLogLog(
+      int t, int d, int p, Hasher64 hasher) {
+    checkParameters(t, d, p);
+    requireNonNull(hasher, "null argument");
+    return Collector.of(
+        () -> ExaLogLog.create(t, d, p),
+        (sketch, value) -> sketch.add(hasher.hashBytesToLong(value)),
+        ExaLogLog::add,
+        Collector.Characteristics.UNORDERED,
+        Collector.Characteristics.IDENTITY_FINISH);
+  }
+
+  /**
+   * Adds all 64-bit hash values of the given stream to a new {@link ExaLogLog} sketch.
+   *
+   * <p>The elements are added using {@link ExaLogLog#add(long)}. Use {@link
+   * #collectLongTokens(LongStream, int, int, int)} for streams of tokens.
+   *
+   * @param hashValues a stream of 64-bit hash values
+   * @param t the t-parameter
+   * @param d the d-parameter
+   * @param p the precision parameter
+   * @return the new sketch
+   * @throws NullPointerException if the stream is null
+   * @throws IllegalArgumentException if any of the parameters is invalid
+   */
+  public static ExaLogLog collectHashValues(LongStream hashValues, int t, int d, int p) {
+    requireNonNull(hashValues, "null argument");
+    checkParameters(t, d, p);
+    return hashValues.collect(
+        () -> ExaLogLog.create(t, d, p),
+        (sketch, hashValue) -> sketch.add(hashValue),
+        (sketch, other) -> sketch.add(other));
+  }
+
+  /**
+   * Adds all 32-bit tokens, obtained from {@link ExaLogLog#computeToken(long)}, of the given stream
+   * to a new {@link ExaLogLog} sketch.
+   *
+   * @param tokens a stream of 32-bit tokens
+   * @param t the t-parameter
+   * @param d the d-parameter
+   * @param p the precision parameter
+   * @return the new sketch
+   * @throws NullPointerException if the stream is null
+   * @throws IllegalArgumentException if any of the parameters is invalid
+   */
+  public static ExaLogLog collectTokens(IntStream tokens, int t, int d, int p) {
+    requireNonNull(tokens, "null argument");
+    checkParameters(t, d, p);
+    return tokens.collect(
+        () -> ExaLogLog.create(t, d, p),
+        (sketch, token) -> sketch.addToken(token),
+        (sketch, other) -> sketch.add(other));
+  }
+
+  /**
+   * Adds all 32-bit tokens, obtained from {@link ExaLogLog#computeToken(long)} and widened to
+   * {@code long}, of the given stream to a new {@link ExaLogLog} sketch.
+   *
+   * <p>The elements are added using {@link ExaLogLog#addToken(int)}. Only the least significant 32
+   * bits of each value are used.
+   *
+   * @param tokens a stream of 32-bit tokens
+   * @param t the t-parameter
+   * @param d the d-parameter
+   * @param p the precision parameter
+   * @return the new sketch
+   * @throws NullPointerException if the stream is null
+   * @throws IllegalArgumentException if any of the parameters is invalid
+   */
+  public static ExaLogLog collectLongTokens(LongStream tokens, int t, int d, int p) {
+    requireNonNull(tokens, "null argument");
+    checkParameters(t, d, p);
+    return tokens.collect(
+        () -> ExaLogLog.create(t, d, p),
+        (sketch, token) -> sketch.addToken((int) token),
+        (sketch, other) -> sketch.add(other));
+  }
+}
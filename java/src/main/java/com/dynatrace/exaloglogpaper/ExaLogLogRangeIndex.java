@@ -0,0 +1,224 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only index over a sequence of ExaLogLog sketches, for example time buckets, that
+ * supports unions over arbitrary index ranges with O(log n) merges.
+ *
+ * <p>Level 0 holds the appended sketches. Level k holds the unions of aligned blocks of {@code
+ * 2^k} consecutive sketches, which are built incrementally as soon as a block is complete. To
+ * limit memory, each level can use smaller d- and p-parameters than the level below.
+ *
+ * <p>This class is not thread-safe.
+ */
+public final class ExaLogLogRangeIndex {
+
+  private final int t;
+  private final int[] dValues;
+  private final int[] pValues;
+  private final List<List<ExaLogLog>> levels = new ArrayList<>();
+
+  private ExaLogLogRangeIndex(int t, int[] dValues, int[] pValues) {
+    this.t = t;
+    this.dValues = dValues;
+    this.pValues = pValues;
+  }
+
+  /**
+   * Creates an empty index.
+   *
+   * <p>The d- and p-parameters of level k are given by {@code dValues[k]} and {@code pValues[k]}.
+   * Levels beyond the array lengths use the last values. The parameters must not increase with
+   * the level.
+   *
+   * @param t the t-parameter
+   * @param dValues the d-parameters of the levels
+   * @param pValues the precision parameters of the levels
+   * @return the new index
+   * @throws NullPointerException if any of the arrays is null
+   * @throws IllegalArgumentException if any of the parameters is invalid
+   */
+  public static ExaLogLogRangeIndex create(int t, int[] dValues, int[] pValues) {
+    requireNonNull(dValues, "null argument");
+    requireNonNull(pValues, "null argument");
+    ExaLogLog.checkTParameter(t);
+    if (dValues.length == 0 || pValues.length == 0) {
+      throw new IllegalArgumentException("no parameters given");
+    }
+    for (int i = 0; i < dValues.length; ++i) {
+      ExaLogLog.checkDParameter(dValues[i], t);
+      if (i > 0 && dValues[i] > dValues[i - 1]) {
+        throw new IllegalArgumentException("d-parameters must not increase");
+      }
+    }
+    for (int i = 0; i < pValues.length; ++i) {
+      ExaLogLog.checkPrecisionParameter(pValues[i], ExaLogLog.getMinP(), ExaLogLog.getMaxP(t));
+      if (i > 0 && pValues[i] > pValues[i - 1]) {
+        throw new IllegalArgumentException("precision parameters must not increase");
+      }
+    }
+    return new ExaLogLogRangeIndex(t, dValues.clone(), pValues.clone());
+  }
+
+  /**
+   * Returns the t-parameter.
+   *
+   * @return the t-parameter
+   */
+  public int getT() {
+    return t;
+  }
+
+  /**
+   * Returns the d-parameter of the given level.
+   *
+   * @param level the level
+   * @return the d-parameter
+   */
+  public int getD(int level) {
+    return dValues[Math.min(level, dValues.length - 1)];
+  }
+
+  /**
+   * Returns the precision parameter of the given level.
+   *
+   * @param level the level
+   * @return the precision parameter
+   */
+  public int getP(int level) {
+    return pValues[Math.min(level, pValues.length - 1)];
+  }
+
+  /**
+   * Returns the number of appended sketches.
+   *
+   * @return the number of appended sketches
+   */
+  public int size() {
+    return levels.isEmpty() ? 0 : levels.get(0).size();
+  }
+
+  /**
+   * Returns the number of levels.
+   *
+   * @return the number of levels
+   */
+  public int getNumLevels() {
+    return levels.size();
+  }
+
+  private ExaLogLog createSketch(int level) {
+    return ExaLogLog.create(t, getD(level), getP(level));
+  }
+
+  private List<ExaLogLog> getLevel(int level) {
+    if (level == levels.size()) {
+      levels.add(new ArrayList<>());
+    }
+    return levels.get(level);
+  }
+
+  /**
+   * Appends a sketch. A downsized copy is stored, the given sketch is not referenced.
+   *
+   * <p>The sketch must have the same t-parameter and must not have smaller d- or p-parameters than
+   * level 0.
+   *
+   * @param sketch the sketch
+   * @return this index
+   * @throws NullPointerException if the sketch is null
+   * @throws IllegalArgumentException if the parameters of the sketch are incompatible
+   */
+  public ExaLogLogRangeIndex append(ExaLogLog sketch) {
+    requireNonNull(sketch, "null argument");
+    List<ExaLogLog> level0 = getLevel(0);
+    int idx = level0.size();
+    level0.add(sketch.downsizeInto(createSketch(0)));
+    // merge completed blocks into the next level
+    for (int level = 0; (idx & 1) == 1; ++level) {
+      List<ExaLogLog> nodes = levels.get(level);
+      getLevel(level + 1)
+          .add(ExaLogLog.mergeInto(createSketch(level + 1), nodes.get(idx - 1), nodes.get(idx)));
+      idx >>>= 1;
+    }
+    return this;
+  }
+
+  /**
+   * Returns the union of the sketches with indices in the given range as a new sketch.
+   *
+   * <p>The range is decomposed into at most {@code 2 log2(n)} aligned blocks. The returned sketch
+   * has the d- and p-parameters of the highest level used.
+   *
+   * @param fromIdx the index of the first sketch (inclusive)
+   * @param toIdx the index of the last sketch (exclusive)
+   * @return the union sketch
+   * @throws IndexOutOfBoundsException if the range is out of bounds
+   */
+  public ExaLogLog getUnion(int fromIdx, int toIdx) {
+    if (fromIdx < 0 || fromIdx > toIdx || toIdx > size()) {
+      throw new IndexOutOfBoundsException("illegal index range");
+    }
+    List<ExaLogLog> nodes = new ArrayList<>();
+    int maxLevel = 0;
+    int idx = fromIdx;
+    while (idx < toIdx) {
+      int level = Math.min(Integer.numberOfTrailingZeros(idx), levels.size() - 1);
+      while (level > 0 && idx + (1 << level) > toIdx) {
+        level -= 1;
+      }
+      nodes.add(levels.get(level).get(idx >>> level));
+      maxLevel = Math.max(maxLevel, level);
+      idx += 1 << level;
+    }
+    ExaLogLog union = createSketch(maxLevel);
+    for (ExaLogLog node : nodes) {
+      union.add(node);
+    }
+    return union;
+  }
+
+  /**
+   * Returns an estimate of the number of distinct elements in the union of the sketches with
+   * indices in the given range.
+   *
+   * @param fromIdx the index of the first sketch (inclusive)
+   * @param toIdx the index of the last sketch (exclusive)
+   * @return the distinct count estimate
+   * @throws IndexOutOfBoundsException if the range is out of bounds
+   * @see #getUnion(int, int)
+   */
+  public double getDistinctCountEstimate(int fromIdx, int toIdx) {
+    return getUnion(fromIdx, toIdx).getDistinctCountEstimate();
+  }
+}
@@ -0,0 +1,359 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A rollup of time-bucketed ExaLogLog sketches organized in tiers of increasing bucket length, for
+ * example minutes, hours and days.
+ *
+ * <p>Elements are added to buckets of the finest tier. When the watermark is advanced past the end
+ * of a bucket, the bucket is closed and merged into the enclosing bucket of the next tier, thereby
+ * downsizing it to the d- and p-parameters of that tier. Each tier retains a limited number of
+ * closed buckets. Distinct count queries over time ranges use the coarsest closed buckets covering
+ * the range.
+ *
+ * <p>This class is not thread-safe.
+ */
+public final class ExaLogLogRollup {
+
+  /** The configuration of a tier. */
+  public static final class Tier {
+
+    private final long bucketLength;
+    private final int d;
+    private final int p;
+    private final int numRetainedBuckets;
+
+    private Tier(long bucketLength, int d, int p, int numRetainedBuckets) {
+      this.bucketLength = bucketLength;
+      this.d = d;
+      this.p = p;
+      this.numRetainedBuckets = numRetainedBuckets;
+    }
+
+    /**
+     * Creates a tier configuration.
+     *
+     * @param bucketLength the length of the time buckets
+     * @param d the d-parameter of the bucket sketches
+     * @param p the precision parameter of the bucket sketches
+     * @param numRetainedBuckets the maximum number of closed buckets to keep
+     * @return the tier configuration
+     * @throws IllegalArgumentException if the bucket length or the number of retained buckets is
+     *     not positive
+     */
+    public static Tier create(long bucketLength, int d, int p, int numRetainedBuckets) {
+      if (bucketLength <= 0) {
+        throw new IllegalArgumentException("illegal bucket length");
+      }
+      if (numRetainedBuckets <= 0) {
+        throw new IllegalArgumentException("illegal number of retained buckets");
+      }
+      return new Tier(bucketLength, d, p, numRetainedBuckets);
+    }
+
+    /**
+     * Returns the bucket length.
+     *
+     * @return the bucket length
+     */
+    public long getBucketLength() {
+      return bucketLength;
+    }
+
+    /**
+     * Returns the d-parameter.
+     *
+     * @return the d-parameter
+     */
+    public int getD() {
+      return d;
+    }
+
+    /**
+     * Returns the precision parameter.
+     *
+     * @return the precision parameter
+     */
+    public int getP() {
+      return p;
+    }
+
+    /**
+     * Returns the maximum number of closed buckets to keep.
+     *
+     * @return the maximum number of closed buckets to keep
+     */
+    public int getNumRetainedBuckets() {
+      return numRetainedBuckets;
+    }
+  }
+
+  private final int t;
+  private final Tier[] tiers;
+
+  // buckets that are not closed yet, keyed by their start time, for the finest tier these are the
+  // buckets elements are added to, for coarser tiers these accumulate already closed buckets
+  private final List<TreeMap<Long, ExaLogLog>> openBuckets;
+  private final List<TreeMap<Long, ExaLogLog>> closedBuckets;
+
+  private long watermark = Long.MIN_VALUE;
+
+  private ExaLogLogRollup(int t, Tier[] tiers) {
+    this.t = t;
+    this.tiers = tiers;
+    this.openBuckets = new ArrayList<>(tiers.length);
+    this.closedBuckets = new ArrayList<>(tiers.length);
+    for (int i = 0; i < tiers.length; ++i) {
+      openBuckets.add(new TreeMap<>());
+      closedBuckets.add(new TreeMap<>());
+    }
+  }
+
+  /**
+   * Creates an empty rollup.
+   *
+   * <p>Tiers must be given from finest to coarsest. The bucket length of a tier must be a multiple
+   * of the bucket length of the previous tier, and its d- and p-parameters must not be larger. The
+   * retained buckets of a tier must span at least one bucket of the next tier.
+   *
+   * @param t the t-parameter of all sketches
+   * @param tiers the tier configurations
+   * @return the new rollup
+   * @throws NullPointerException if any tier is null
+   * @throws IllegalArgumentException if the tiers are invalid
+   */
+  public static ExaLogLogRollup create(int t, Tier... tiers) {
+    requireNonNull(tiers, "null argument");
+    if (tiers.length == 0) {
+      throw new IllegalArgumentException("no tiers given");
+    }
+    ExaLogLog.checkTParameter(t);
+    for (int i = 0; i < tiers.length; ++i) {
+      Tier tier = requireNonNull(tiers[i], "null argument");
+      ExaLogLog.checkDParameter(tier.d, t);
+      ExaLogLog.checkPrecisionParameter(tier.p, ExaLogLog.getMinP(), ExaLogLog.getMaxP(t));
+      if (i > 0) {
+        Tier previous = tiers[i - 1];
+        if (tier.bucketLength <= previous.bucketLength
+            || tier.bucketLength % previous.bucketLength != 0) {
+          throw new IllegalArgumentException(
+              "bucket length is not a multiple of the bucket length of the previous tier");
+        }
+        if (tier.d > previous.d || tier.p > previous.p) {
+          throw new IllegalArgumentException("parameters are larger than those of previous tier");
+        }
+        if (previous.numRetainedBuckets < tier.bucketLength / previous.bucketLength) {
+          throw new IllegalArgumentException("previous tier does not retain enough buckets");
+        }
+      }
+    }
+    return new ExaLogLogRollup(t, tiers.clone());
+  }
+
+  /**
+   * Returns the t-parameter.
+   *
+   * @return the t-parameter
+   */
+  public int getT() {
+    return t;
+  }
+
+  /**
+   * Returns the number of tiers.
+   *
+   * @return the number of tiers
+   */
+  public int getNumTiers() {
+    return tiers.length;
+  }
+
+  /**
+   * Returns the configuration of the given tier.
+   *
+   * @param tierIndex the tier index, 0 refers to the finest tier
+   * @return the tier configuration
+   */
+  public Tier getTier(int tierIndex) {
+    return tiers[tierIndex];
+  }
+
+  /**
+   * Returns the watermark. All buckets ending at or before the watermark are closed.
+   *
+   * @return the watermark
+   */
+  public long getWatermark() {
+    return watermark;
+  }
+
+  private static long getBucketStart(long time, long bucketLength) {
+    return Math.floorDiv(time, bucketLength) * bucketLength;
+  }
+
+  /**
+   * Adds an element represented by a 64-bit hash value at the given time.
+   *
+   * @param time the time
+   * @param hashValue a 64-bit hash value
+   * @return this rollup
+   * @throws IllegalArgumentException if the time is before the watermark
+   */
+  public ExaLogLogRollup add(long time, long hashValue) {
+    Tier tier = tiers[0];
+    long bucketStart = getBucketStart(time, tier.bucketLength);
+    if (bucketStart + tier.bucketLength <= watermark) {
+      throw new IllegalArgumentException("bucket is already closed");
+    }
+    openBuckets
+        .get(0)
+        .computeIfAbsent(bucketStart, k -> ExaLogLog.create(t, tier.d, tier.p))
+        .add(hashValue);
+    return this;
+  }
+
+  /**
+   * Advances the watermark and closes all buckets ending at or before it.
+   *
+   * @param watermark the new watermark
+   * @return this rollup
+   * @throws IllegalArgumentException if the new watermark is smaller than the current one
+   */
+  public ExaLogLogRollup advanceWatermark(long watermark) {
+    if (watermark < this.watermark) {
+      throw new IllegalArgumentException("watermark must not decrease");
+    }
+    this.watermark = watermark;
+    for (int tierIndex = 0; tierIndex < tiers.length; ++tierIndex) {
+      Tier tier = tiers[tierIndex];
+      TreeMap<Long, ExaLogLog> open = openBuckets.get(tierIndex);
+      TreeMap<Long, ExaLogLog> closed = closedBuckets.get(tierIndex);
+      Iterator<Map.Entry<Long, ExaLogLog>> it = open.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<Long, ExaLogLog> entry = it.next();
+        long bucketStart = entry.getKey();
+        if (bucketStart + tier.bucketLength > watermark) {
+          break;
+        }
+        it.remove();
+        closed.put(bucketStart, entry.getValue());
+        if (tierIndex + 1 < tiers.length) {
+          Tier nextTier = tiers[tierIndex + 1];
+          openBuckets
+              .get(tierIndex + 1)
+              .computeIfAbsent(
+                  getBucketStart(bucketStart, nextTier.bucketLength),
+                  k -> ExaLogLog.create(t, nextTier.d, nextTier.p))
+              .add(entry.getValue());
+        }
+      }
+      while (closed.size() > tier.numRetainedBuckets) {
+        closed.pollFirstEntry();
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Returns the union of all buckets overlapping the given time range as a new sketch.
+   *
+   * <p>The range is extended to the bucket boundaries of the finest tier. Closed buckets of
+   * coarser tiers are preferred. Time ranges for which buckets are no longer retained in any tier
+   * do not contribute. The returned sketch has the d- and p-parameters of the coarsest tier used.
+   *
+   * @param fromTime the start of the time range (inclusive)
+   * @param toTime the end of the time range (exclusive)
+   * @return the union sketch
+   */
+  public ExaLogLog getUnion(long fromTime, long toTime) {
+    List<ExaLogLog> sketches = new ArrayList<>();
+    long finestBucketLength = tiers[0].bucketLength;
+    long fromBucketStart = getBucketStart(fromTime, finestBucketLength);
+    long toBucketStart = -getBucketStart(-toTime, finestBucketLength);
+    collect(fromBucketStart, toBucketStart, tiers.length - 1, sketches);
+    int d = tiers[0].d;
+    int p = tiers[0].p;
+    for (ExaLogLog sketch : sketches) {
+      d = Math.min(d, sketch.getD());
+      p = Math.min(p, sketch.getP());
+    }
+    ExaLogLog union = ExaLogLog.create(t, d, p);
+    for (ExaLogLog sketch : sketches) {
+      union.add(sketch);
+    }
+    return union;
+  }
+
+  /**
+   * Returns an estimate of the number of distinct elements in all buckets overlapping the given
+   * time range.
+   *
+   * @param fromTime the start of the time range (inclusive)
+   * @param toTime the end of the time range (exclusive)
+   * @return the distinct count estimate
+   * @see #getUnion(long, long)
+   */
+  public double getDistinctCountEstimate(long fromTime, long toTime) {
+    return getUnion(fromTime, toTime).getDistinctCountEstimate();
+  }
+
+  // collects the sketches covering [fromTime, toTime), which are aligned to the finest buckets,
+  // using closed buckets of the given tier and filling the gaps with finer tiers
+  private void collect(long fromTime, long toTime, int tierIndex, List<ExaLogLog> sketches) {
+    if (fromTime >= toTime) {
+      return;
+    }
+    if (tierIndex == 0) {
+      sketches.addAll(closedBuckets.get(0).subMap(fromTime, toTime).values());
+      sketches.addAll(openBuckets.get(0).subMap(fromTime, toTime).values());
+      return;
+    }
+    long bucketLength = tiers[tierIndex].bucketLength;
+    long gapStart = fromTime;
+    long firstBucketStart = -getBucketStart(-fromTime, bucketLength);
+    long lastBucketEnd = getBucketStart(toTime, bucketLength);
+    if (firstBucketStart < lastBucketEnd) {
+      for (Map.Entry<Long, ExaLogLog> entry :
+          closedBuckets.get(tierIndex).subMap(firstBucketStart, lastBucketEnd).entrySet()) {
+        long bucketStart = entry.getKey();
+        collect(gapStart, bucketStart, tierIndex - 1, sketches);
+        sketches.add(entry.getValue());
+        gapStart = bucketStart + bucketLength;
+      }
+    }
+    collect(gapStart, toTime, tierIndex - 1, sketches);
+  }
+}
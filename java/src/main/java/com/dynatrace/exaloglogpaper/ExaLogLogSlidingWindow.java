@@ -0,0 +1,208 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import java.util.ArrayDeque;
+
+/**
+ * A distinct counter over a sliding window of slots, for example the last 900 seconds, with one
+ * ExaLogLog sketch per slot.
+ *
+ * <p>The window union is maintained using the two-stacks technique, which relies on merging
+ * being associative and idempotent. Newer slots are kept on a back stack together with their
+ * running union. Older slots are kept on a front stack, where each entry holds the union of
+ * itself and all newer front entries. When the oldest slot is evicted and the front stack is
+ * empty, the back stack is moved to the front stack computing the suffix unions. This requires
+ * an amortized constant number of merges per slot.
+ *
+ * <p>Sketches of evicted slots are reused. This class is not thread-safe.
+ */
+public final class ExaLogLogSlidingWindow {
+
+  private final int t;
+  private final int d;
+  private final int p;
+  private final int numSlots;
+
+  // oldest slot first, each sketch holds the union of its slot and all newer slots in the front
+  private final ArrayDeque<ExaLogLog> front = new ArrayDeque<>();
+  // oldest slot first, each sketch holds its slot only
+  private final ArrayDeque<ExaLogLog> back = new ArrayDeque<>();
+  private final ArrayDeque<ExaLogLog> free = new ArrayDeque<>();
+  private final ExaLogLog backUnion;
+  private final ExaLogLog windowUnion;
+  private ExaLogLog current;
+
+  private ExaLogLogSlidingWindow(int t, int d, int p, int numSlots) {
+    this.t = t;
+    this.d = d;
+    this.p = p;
+    this.numSlots = numSlots;
+    this.current = ExaLogLog.create(t, d, p);
+    this.backUnion = ExaLogLog.create(t, d, p);
+    this.windowUnion = ExaLogLog.create(t, d, p);
+  }
+
+  /**
+   * Creates a sliding window with the given number of slots, all empty.
+   *
+   * @param t the t-parameter
+   * @param d the d-parameter
+   * @param p the precision parameter
+   * @param numSlots the number of slots in the window including the current slot
+   * @return the new sliding window
+   * @throws IllegalArgumentException if any of the parameters is invalid
+   */
+  public static ExaLogLogSlidingWindow create(int t, int d, int p, int numSlots) {
+    ExaLogLog.checkTParameter(t);
+    ExaLogLog.checkDParameter(d, t);
+    ExaLogLog.checkPrecisionParameter(p, ExaLogLog.getMinP(), ExaLogLog.getMaxP(t));
+    if (numSlots < 1) {
+      throw new IllegalArgumentException("illegal number of slots");
+    }
+    return new ExaLogLogSlidingWindow(t, d, p, numSlots);
+  }
+
+  /**
+   * Returns the t-parameter.
+   *
+   * @return the t-parameter
+   */
+  public int getT() {
+    return t;
+  }
+
+  /**
+   * Returns the d-parameter.
+   *
+   * @return the d-parameter
+   */
+  public int getD() {
+    return d;
+  }
+
+  /**
+   * Returns the precision parameter.
+   *
+   * @return the precision parameter
+   */
+  public int getP() {
+    return p;
+  }
+
+  /**
+   * Returns the number of slots in the window including the current slot.
+   *
+   * @return the number of slots
+   */
+  public int getNumSlots() {
+    return numSlots;
+  }
+
+  /**
+   * Adds a new element represented by a 64-bit hash value to the current slot.
+   *
+   * @param hashValue a 64-bit hash value
+   * @return this sliding window
+   */
+  public ExaLogLogSlidingWindow add(long hashValue) {
+    current.add(hashValue);
+    return this;
+  }
+
+  /**
+   * Adds a new element represented by a 32-bit token obtained from {@link
+   * ExaLogLog#computeToken(long)} to the current slot.
+   *
+   * @param token a 32-bit hash token
+   * @return this sliding window
+   */
+  public ExaLogLogSlidingWindow addToken(int token) {
+    current.addToken(token);
+    return this;
+  }
+
+  /**
+   * Closes the current slot and starts a new empty one. The oldest slot is evicted if the window
+   * is full.
+   *
+   * @return this sliding window
+   */
+  public ExaLogLogSlidingWindow advance() {
+    back.addLast(current);
+    backUnion.add(current);
+    current = free.isEmpty() ? ExaLogLog.create(t, d, p) : free.pollFirst();
+    if (front.size() + back.size() >= numSlots) {
+      if (front.isEmpty()) {
+        flip();
+      }
+      free.addLast(front.pollFirst().reset());
+    }
+    return this;
+  }
+
+  // moves all slots from the back to the front stack computing the suffix unions
+  private void flip() {
+    ExaLogLog newer = null;
+    while (!back.isEmpty()) {
+      ExaLogLog sketch = back.pollLast();
+      if (newer != null) {
+        sketch.add(newer);
+      }
+      front.addFirst(sketch);
+      newer = sketch;
+    }
+    backUnion.reset();
+  }
+
+  private ExaLogLog computeWindowUnion(ExaLogLog target) {
+    if (front.isEmpty()) {
+      backUnion.copyInto(target);
+    } else {
+      front.peekFirst().copyInto(target).add(backUnion);
+    }
+    return target.add(current);
+  }
+
+  /**
+   * Returns the union of all slots in the window as a new sketch.
+   *
+   * @return the union sketch
+   */
+  public ExaLogLog getUnion() {
+    return computeWindowUnion(ExaLogLog.create(t, d, p));
+  }
+
+  /**
+   * Returns an estimate of the number of distinct elements in the window.
+   *
+   * @return the distinct count estimate
+   */
+  public double getDistinctCountEstimate() {
+    return computeWindowUnion(windowUnion).getDistinctCountEstimate();
+  }
+}
@@ -0,0 +1,221 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static java.util.Objects.requireNonNull;
+
+import com.dynatrace.hash4j.hashing.Hasher64;
+import java.util.UUID;
+
+/**
+ * An ingestion facade over an {@link ExaLogLog} sketch that hashes elements with a configurable
+ * {@link Hasher64} and inserts the resulting 64-bit hash values.
+ *
+ * <p>Strings, byte array slices, longs and UUIDs are hashed directly without converting them to
+ * byte arrays first. Like {@link ExaLogLog}, this class is not thread-safe.
+ */
+public final class HashingExaLogLog {
+
+  private final ExaLogLog sketch;
+  private final Hasher64 hasher;
+
+  private HashingExaLogLog(ExaLogLog sketch, Hasher64 hasher) {
+    this.sketch = sketch;
+    this.hasher = hasher;
+  }
+
+  /**
+   * Creates an empty ExaLogLog sketch that hashes elements with the given hasher.
+   *
+   * @param t the t-parameter
+   * @param d the d-parameter
+   * @param p the precision parameter
+   * @param hasher the hasher
+   * @return the new instance
+   * @throws NullPointerException if the hasher is null
+   * @throws IllegalArgumentException if any of the parameters is invalid
+   */
+  public static HashingExaLogLog create(int t, int d, int p, Hasher64 hasher) {
+    requireNonNull(hasher, "null argument");
+    return new HashingExaLogLog(ExaLogLog.create(t, d, p), hasher);
+  }
+
+  /**
+   * Wraps an existing ExaLogLog sketch. Elements are inserted directly into the given sketch.
+   *
+   * @param sketch the sketch
+   * @param hasher the hasher
+   * @return the new instance
+   * @throws NullPointerException if the sketch or the hasher is null
+   */
+  public static HashingExaLogLog wrap(ExaLogLog sketch, Hasher64 hasher) {
+    requireNonNull(sketch, "null argument");
+    requireNonNull(hasher, "null argument");
+    return new HashingExaLogLog(sketch, hasher);
+  }
+
+  /**
+   * Returns the underlying sketch.
+   *
+   * @return the underlying sketch
+   */
+  public ExaLogLog getSketch() {
+    return sketch;
+  }
+
+  /**
+   * Returns the hasher.
+   *
+   * @return the hasher
+   */
+  public Hasher64 getHasher() {
+    return hasher;
+  }
+
+  /**
+   * Adds a char sequence.
+   *
+   * @param value the char sequence
+   * @return this instance
+   */
+  public HashingExaLogLog addChars(CharSequence value) {
+    sketch.add(hasher.hashCharsToLong(value));
+    return this;
+  }
+
+  /**
+   * Adds a byte array.
+   *
+   * @param value the byte array
+   * @return this instance
+   */
+  public HashingExaLogLog addBytes(byte[] value) {
+    sketch.add(hasher.hashBytesToLong(value));
+    return this;
+  }
+
+  /**
+   * Adds a slice of a byte array.
+   *
+   * @param value the byte array
+   * @param off the start offset of the slice
+   * @param len the length of the slice
+   * @return this instance
+   */
+  public HashingExaLogLog addBytes(byte[] value, int off, int len) {
+    sketch.add(hasher.hashBytesToLong(value, off, len));
+    return this;
+  }
+
+  /**
+   * Adds a long value.
+   *
+   * @param value the long value
+   * @return this instance
+   */
+  public HashingExaLogLog addLong(long value) {
+    sketch.add(hasher.hashLongToLong(value));
+    return this;
+  }
+
+  /**
+   * Adds a UUID.
+   *
+   * @param value the UUID
+   * @return this instance
+   */
+  public HashingExaLogLog addUuid(UUID value) {
+    sketch.add(
+        hasher.hashLongLongToLong(value.getMostSignificantBits(), value.getLeastSignificantBits()));
+    return this;
+  }
+
+  /**
+   * Adds all char sequences.
+   *
+   * @param values the char sequences
+   * @return this instance
+   */
+  public HashingExaLogLog addAllChars(Iterable<? extends CharSequence> values) {
+    for (CharSequence value : values) {
+      sketch.add(hasher.hashCharsToLong(value));
+    }
+    return this;
+  }
+
+  /**
+   * Adds all byte arrays.
+   *
+   * @param values the byte arrays
+   * @return this instance
+   */
+  public HashingExaLogLog addAllBytes(Iterable<byte[]> values) {
+    for (byte[] value : values) {
+      sketch.add(hasher.hashBytesToLong(value));
+    }
+    return this;
+  }
+
+  /**
+   * Adds the long values within the given index range.
+   *
+   * @param values the long values
+   * @param fromIdx the index of the first value (inclusive)
+   * @param toIdx the index of the last value (exclusive)
+   * @return this instance
+   */
+  public HashingExaLogLog addLongs(long[] values, int fromIdx, int toIdx) {
+    for (int i = fromIdx; i < toIdx; ++i) {
+      sketch.add(hasher.hashLongToLong(values[i]));
+    }
+    return this;
+  }
+
+  /**
+   * Adds all UUIDs.
+   *
+   * @param values the UUIDs
+   * @return this instance
+   */
+  public HashingExaLogLog addAllUuids(Iterable<UUID> values) {
+    for (UUID value : values) {
+      sketch.add(
+          hasher.hashLongLongToLong(
+              value.getMostSignificantBits(), value.getLeastSignificantBits()));
+    }
+    return this;
+  }
+
+  /**
+   * Returns a distinct count estimate of the underlying sketch.
+   *
+   * @return the distinct count estimate
+   */
+  public double getDistinctCountEstimate() {
+    return sketch.getDistinctCountEstimate();
+  }
+}
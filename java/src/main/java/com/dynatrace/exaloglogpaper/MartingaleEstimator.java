@@ -44,7 +44,8 @@ import static com.dynatrace.hash4j.util.Preconditions.checkArgument;
  * getStateChangeProbability()} and {@code getDistinctCountEstimate()} of the corresponding distinct
  * counter. At that point, the martingale estimator returns the same estimate as the standard
  * estimator. However, if many further elements are added, the martingale estimator may again
- * produce better estimates.
+ * produce better estimates. {@link ExaLogLog#add(ExaLogLog, MartingaleEstimator)} does this as part
+ * of the merge.
  *
  * <p>The estimator remains valid if the associated data structure is downsized with {@link
  * ExaLogLog#downsize(int, int)}.
@@ -0,0 +1,178 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static java.util.Objects.requireNonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * An {@link ExaLogLog} sketch together with its {@link MartingaleEstimator}, which can be
+ * serialized and restored as a whole.
+ *
+ * <p>This allows long-running single-stream counters to resume martingale estimation after a
+ * restart without falling back to the standard estimator. The serialized form consists of a
+ * version byte, the t-, d- and p-parameters, the distinct count estimate and the state change
+ * probability of the martingale estimator, both as little-endian doubles, followed by the state of
+ * the sketch.
+ *
+ * <p>This class is not thread-safe.
+ */
+public final class MartingaleExaLogLog {
+
+  private static final byte SERIAL_VERSION = 0;
+  private static final int HEADER_SIZE = 4 + 2 * Double.BYTES;
+
+  private final ExaLogLog sketch;
+  private final MartingaleEstimator martingaleEstimator;
+
+  private MartingaleExaLogLog(ExaLogLog sketch, MartingaleEstimator martingaleEstimator) {
+    this.sketch = sketch;
+    this.martingaleEstimator = martingaleEstimator;
+  }
+
+  /**
+   * Creates an empty instance.
+   *
+   * @param t the t-parameter
+   * @param d the d-parameter
+   * @param p the precision parameter
+   * @return the new instance
+   * @throws IllegalArgumentException if any of the parameters is invalid
+   */
+  public static MartingaleExaLogLog create(int t, int d, int p) {
+    return new MartingaleExaLogLog(ExaLogLog.create(t, d, p), new MartingaleEstimator());
+  }
+
+  /**
+   * Returns the underlying sketch.
+   *
+   * <p>The sketch must not be modified directly, otherwise the martingale estimator becomes
+   * invalid.
+   *
+   * @return the underlying sketch
+   */
+  public ExaLogLog getSketch() {
+    return sketch;
+  }
+
+  /**
+   * Adds a new element represented by a 64-bit hash value.
+   *
+   * @param hashValue a 64-bit hash value
+   * @return this instance
+   */
+  public MartingaleExaLogLog add(long hashValue) {
+    sketch.add(hashValue, martingaleEstimator);
+    return this;
+  }
+
+  /**
+   * Adds a new element represented by a 32-bit token obtained from {@link
+   * ExaLogLog#computeToken(long)}.
+   *
+   * @param token a 32-bit hash token
+   * @return this instance
+   */
+  public MartingaleExaLogLog addToken(int token) {
+    sketch.addToken(token, martingaleEstimator);
+    return this;
+  }
+
+  /**
+   * Returns the martingale estimate of the number of distinct elements.
+   *
+   * @return the distinct count estimate
+   */
+  public double getDistinctCountEstimate() {
+    return martingaleEstimator.getDistinctCountEstimate();
+  }
+
+  /**
+   * Returns the probability of an internal state change when a new distinct element is added.
+   *
+   * @return the state change probability
+   */
+  public double getStateChangeProbability() {
+    return martingaleEstimator.getStateChangeProbability();
+  }
+
+  /**
+   * Serializes the sketch together with the state of the martingale estimator.
+   *
+   * @return the serialized form
+   */
+  public byte[] toByteArray() {
+    byte[] state = sketch.peekState();
+    byte[] result = new byte[HEADER_SIZE + state.length];
+    ByteBuffer.wrap(result)
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .put(SERIAL_VERSION)
+        .put((byte) sketch.getT())
+        .put((byte) sketch.getD())
+        .put((byte) sketch.getP())
+        .putDouble(martingaleEstimator.getDistinctCountEstimate())
+        .putDouble(martingaleEstimator.getStateChangeProbability())
+        .put(state);
+    return result;
+  }
+
+  /**
+   * Restores an instance from its serialized form obtained from {@link #toByteArray()}.
+   *
+   * <p>The returned instance does not share any memory with the given array.
+   *
+   * @param bytes the serialized form
+   * @return the restored instance
+   * @throws NullPointerException if the argument is null
+   * @throws IllegalArgumentException if the serialized form is invalid
+   */
+  public static MartingaleExaLogLog fromByteArray(byte[] bytes) {
+    requireNonNull(bytes, "null argument");
+    if (bytes.length < HEADER_SIZE) {
+      throw new IllegalArgumentException("invalid serialized form");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.get() != SERIAL_VERSION) {
+      throw new IllegalArgumentException("unsupported serial version");
+    }
+    int t = buffer.get();
+    int d = buffer.get();
+    int p = buffer.get();
+    double distinctCountEstimate = buffer.getDouble();
+    double stateChangeProbability = buffer.getDouble();
+    ExaLogLog.checkTParameter(t);
+    ExaLogLog sketch = ExaLogLog.wrap(t, d, Arrays.copyOfRange(bytes, HEADER_SIZE, bytes.length));
+    if (sketch.getP() != p) {
+      throw new IllegalArgumentException("invalid serialized form");
+    }
+    return new MartingaleExaLogLog(
+        sketch, new MartingaleEstimator(distinctCountEstimate, stateChangeProbability));
+  }
+}
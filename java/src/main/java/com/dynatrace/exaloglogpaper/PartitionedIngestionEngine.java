@@ -0,0 +1,412 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An ingestion engine that updates a single {@link ExaLogLog} sketch using multiple worker threads.
+ *
+ * <p>The register index of a hash value is given by its least significant bits. Therefore, the
+ * register space can be split into contiguous ranges, each of which is owned by exactly one worker
+ * thread. Hash values are routed by {@link Producer}s to the owning worker through
+ * single-producer/single-consumer ring buffers. As workers only modify their own registers,
+ * register updates never conflict and no final merge is needed.
+ *
+ * <p>Each worker keeps the registers of its range in a separate sketch with reduced precision. If
+ * the bits selecting the range are set to one before a hash value is added, this sketch has exactly
+ * the same state as the corresponding byte range of the full sketch. Workers copy their state into
+ * the full sketch on {@link #flush()} and {@link #close()}, which avoids that different threads
+ * write to the same byte array.
+ *
+ * <p>Each {@link Producer} must only be used by a single thread at a time. The sketch must not be
+ * accessed directly while the engine is running. Its state is only guaranteed to reflect all
+ * previously added hash values after {@link #flush()} or {@link #close()} has returned.
+ */
+public final class PartitionedIngestionEngine implements AutoCloseable {
+
+  private static final int IDLE_SPIN_COUNT = 1000;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final ExaLogLog sketch;
+  private final int partitionShift;
+  private final int partitionMask;
+  private final Producer[] producers;
+  private final Worker[] workers;
+
+  private final AtomicLong flushRequestCounter = new AtomicLong();
+  private volatile boolean running = true;
+
+  private PartitionedIngestionEngine(
+      ExaLogLog sketch, int numProducers, int numWorkers, int ringBufferCapacity) {
+    this.sketch = sketch;
+    int numPartitionBits = Integer.numberOfTrailingZeros(numWorkers);
+    this.partitionShift = sketch.getT() + sketch.getP() - numPartitionBits;
+    this.partitionMask = numWorkers - 1;
+    this.producers = new Producer[numProducers];
+    this.workers = new Worker[numWorkers];
+    RingBuffer[][] ringBuffers = new RingBuffer[numWorkers][numProducers];
+    for (int producerIdx = 0; producerIdx < numProducers; ++producerIdx) {
+      RingBuffer[] producerRingBuffers = new RingBuffer[numWorkers];
+      for (int workerIdx = 0; workerIdx < numWorkers; ++workerIdx) {
+        RingBuffer ringBuffer = new RingBuffer(ringBufferCapacity);
+        producerRingBuffers[workerIdx] = ringBuffer;
+        ringBuffers[workerIdx][producerIdx] = ringBuffer;
+      }
+      producers[producerIdx] = new Producer(producerRingBuffers);
+    }
+    for (int workerIdx = 0; workerIdx < numWorkers; ++workerIdx) {
+      workers[workerIdx] =
+          new Worker(
+              ExaLogLog.create(sketch.getT(), sketch.getD(), sketch.getP() - numPartitionBits),
+              workerIdx,
+              ringBuffers[workerIdx]);
+      workers[workerIdx].setName("exaloglog-ingestion-worker-" + workerIdx);
+      workers[workerIdx].setDaemon(true);
+    }
+  }
+
+  /**
+   * Starts a new ingestion engine for the given sketch.
+   *
+   * <p>The number of workers must be a power of two. Furthermore, the number of registers per
+   * worker must be chosen such that register ranges of different workers do not share any byte of
+   * the sketch state.
+   *
+   * @param sketch the sketch to be updated
+   * @param numProducers the number of producers
+   * @param numWorkers the number of worker threads
+   * @param ringBufferCapacity the capacity of each ring buffer, must be a power of two
+   * @return the started ingestion engine
+   * @throws NullPointerException if the sketch is null
+   * @throws IllegalArgumentException if any of the parameters is invalid
+   */
+  public static PartitionedIngestionEngine start(
+      ExaLogLog sketch, int numProducers, int numWorkers, int ringBufferCapacity) {
+    PartitionedIngestionEngine engine =
+        create(sketch, numProducers, numWorkers, ringBufferCapacity);
+    engine.startWorkers();
+    return engine;
+  }
+
+  // creates an engine whose worker threads have not been started yet, visible for testing
+  static PartitionedIngestionEngine create(
+      ExaLogLog sketch, int numProducers, int numWorkers, int ringBufferCapacity) {
+    requireNonNull(sketch, "null argument");
+    if (numProducers < 1) {
+      throw new IllegalArgumentException("illegal number of producers");
+    }
+    if (numWorkers < 1 || Integer.bitCount(numWorkers) != 1) {
+      throw new IllegalArgumentException("number of workers must be a power of two");
+    }
+    int numPartitionBits = Integer.numberOfTrailingZeros(numWorkers);
+    if (sketch.getP() - numPartitionBits < ExaLogLog.getMinP()
+        || ((ExaLogLog.getRegisterBitSize(sketch.getT(), sketch.getD())
+                    << (sketch.getP() - numPartitionBits))
+                & 7)
+            != 0) {
+      throw new IllegalArgumentException("number of workers too large for sketch precision");
+    }
+    if (ringBufferCapacity < 2 || Integer.bitCount(ringBufferCapacity) != 1) {
+      throw new IllegalArgumentException("ring buffer capacity must be a power of two");
+    }
+    return new PartitionedIngestionEngine(sketch, numProducers, numWorkers, ringBufferCapacity);
+  }
+
+  // visible for testing
+  void startWorkers() {
+    for (Worker worker : workers) {
+      worker.start();
+    }
+  }
+
+  /**
+   * Returns the producer with the given index.
+   *
+   * @param producerIdx the producer index
+   * @return the producer
+   */
+  public Producer getProducer(int producerIdx) {
+    return producers[producerIdx];
+  }
+
+  /**
+   * Returns the number of producers.
+   *
+   * @return the number of producers
+   */
+  public int getNumProducers() {
+    return producers.length;
+  }
+
+  /**
+   * Returns the number of worker threads.
+   *
+   * @return the number of worker threads
+   */
+  public int getNumWorkers() {
+    return workers.length;
+  }
+
+  /**
+   * Returns the sketch updated by this engine.
+   *
+   * @return the sketch
+   */
+  public ExaLogLog getSketch() {
+    return sketch;
+  }
+
+  /**
+   * Waits until all hash values, that have been added by any producer before this call, have been
+   * inserted into the sketch.
+   *
+   * @throws IllegalStateException if the engine has already been closed, also if it is closed
+   *     concurrently while waiting
+   */
+  public void flush() {
+    checkRunning();
+    for (Worker worker : workers) {
+      for (RingBuffer ringBuffer : worker.ringBuffers) {
+        long position = ringBuffer.published.get();
+        while (ringBuffer.consumed.get() < position) {
+          awaitFlushProgress();
+        }
+      }
+    }
+    long flushRequest = flushRequestCounter.incrementAndGet();
+    for (Worker worker : workers) {
+      LockSupport.unpark(worker);
+    }
+    for (Worker worker : workers) {
+      while (worker.flushAcknowledgement < flushRequest) {
+        awaitFlushProgress();
+      }
+    }
+    sketch.invalidateStateChangeProbabilitySum();
+  }
+
+  private void checkRunning() {
+    if (!running) {
+      throw new IllegalStateException("ingestion engine already closed");
+    }
+  }
+
+  // workers stop without acknowledging pending flush requests, therefore a flush must fail, if the
+  // engine is closed while waiting
+  private void awaitFlushProgress() {
+    checkRunning();
+    LockSupport.parkNanos(IDLE_PARK_NANOS);
+  }
+
+  /**
+   * Inserts all pending hash values into the sketch and stops all worker threads.
+   *
+   * <p>Producers must not be used after the engine has been closed.
+   */
+  @Override
+  public void close() {
+    running = false;
+    boolean interrupted = false;
+    for (Worker worker : workers) {
+      LockSupport.unpark(worker);
+      while (true) {
+        try {
+          worker.terminated.await();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    for (Worker worker : workers) {
+      worker.copyState();
+    }
+    sketch.invalidateStateChangeProbabilitySum();
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** A producer routes hash values to the workers owning the corresponding registers. */
+  public final class Producer {
+
+    private final RingBuffer[] ringBuffers;
+
+    private Producer(RingBuffer[] ringBuffers) {
+      this.ringBuffers = ringBuffers;
+    }
+
+    /**
+     * Adds a new element represented by a 64-bit hash value.
+     *
+     * <p>If the ring buffer of the corresponding worker is full, this method spins until space is
+     * available.
+     *
+     * @param hashValue a 64-bit hash value
+     * @return this producer
+     * @throws IllegalStateException if the engine has already been closed
+     */
+    public Producer add(long hashValue) {
+      RingBuffer ringBuffer = ringBuffers[(int) (hashValue >>> partitionShift) & partitionMask];
+      while (running) {
+        if (ringBuffer.offer(hashValue)) {
+          return this;
+        }
+        Thread.onSpinWait();
+      }
+      throw new IllegalStateException("ingestion engine already closed");
+    }
+
+    /**
+     * Adds all hash values of the given array range.
+     *
+     * @param hashValues an array of 64-bit hash values
+     * @param fromIdx the index of the first hash value (inclusive)
+     * @param toIdx the index of the last hash value (exclusive)
+     * @return this producer
+     * @throws IllegalStateException if the engine has already been closed
+     */
+    public Producer add(long[] hashValues, int fromIdx, int toIdx) {
+      for (int i = fromIdx; i < toIdx; ++i) {
+        add(hashValues[i]);
+      }
+      return this;
+    }
+  }
+
+  private final class Worker extends Thread {
+
+    private final ExaLogLog partition;
+    private final int stateOffset;
+    private final long partitionBits;
+    private final RingBuffer[] ringBuffers;
+
+    private volatile long flushAcknowledgement;
+
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    private Worker(ExaLogLog partition, int workerIdx, RingBuffer[] ringBuffers) {
+      this.partition = partition;
+      byte[] partitionState = partition.getState();
+      this.stateOffset = partitionState.length * workerIdx;
+      System.arraycopy(sketch.peekState(), stateOffset, partitionState, 0, partitionState.length);
+      this.partitionBits = ((long) partitionMask) << partitionShift;
+      this.ringBuffers = ringBuffers;
+    }
+
+    private boolean drainAll() {
+      boolean drained = false;
+      for (RingBuffer ringBuffer : ringBuffers) {
+        drained |= ringBuffer.drainTo(partition, partitionBits);
+      }
+      return drained;
+    }
+
+    private void copyState() {
+      byte[] partitionState = partition.peekState();
+      System.arraycopy(partitionState, 0, sketch.peekState(), stateOffset, partitionState.length);
+    }
+
+    @Override
+    public void run() {
+      try {
+        int idleCount = 0;
+        while (running) {
+          long flushRequest = flushRequestCounter.get();
+          if (drainAll()) {
+            idleCount = 0;
+          } else if (idleCount < IDLE_SPIN_COUNT) {
+            idleCount += 1;
+            Thread.onSpinWait();
+          } else {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+          }
+          if (flushRequest != flushAcknowledgement) {
+            copyState();
+            flushAcknowledgement = flushRequest;
+          }
+        }
+        while (drainAll()) {
+          // insert remaining hash values after close
+        }
+      } finally {
+        terminated.countDown();
+      }
+    }
+  }
+
+  // single-producer/single-consumer ring buffer of hash values
+  private static final class RingBuffer {
+
+    private final long[] buffer;
+    private final int mask;
+
+    // only accessed by the producer
+    private long tail;
+    private long cachedConsumed;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+
+    private RingBuffer(int capacity) {
+      this.buffer = new long[capacity];
+      this.mask = capacity - 1;
+    }
+
+    private boolean offer(long value) {
+      if (tail - cachedConsumed == buffer.length) {
+        cachedConsumed = consumed.get();
+        if (tail - cachedConsumed == buffer.length) {
+          return false;
+        }
+      }
+      buffer[(int) tail & mask] = value;
+      tail += 1;
+      published.lazySet(tail);
+      return true;
+    }
+
+    private boolean drainTo(ExaLogLog partition, long partitionBits) {
+      long head = consumed.get();
+      long end = published.get();
+      if (head == end) {
+        return false;
+      }
+      for (; head < end; ++head) {
+        partition.add(buffer[(int) head & mask] | partitionBits);
+      }
+      consumed.lazySet(head);
+      return true;
+    }
+  }
+}
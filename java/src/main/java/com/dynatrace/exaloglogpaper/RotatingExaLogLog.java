@@ -0,0 +1,204 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A holder of multiple {@link ExaLogLog} sketches that allows to start a new sketch at epoch
+ * boundaries without blocking the ingest path.
+ *
+ * <p>Elements are always added to the active sketch. {@link #rotate()} atomically replaces the
+ * active sketch by an empty one, waits until in-flight insertions into the old sketch have
+ * finished, and returns the old sketch, which is then sealed and can be handed to a consumer. Once
+ * the consumer is done, the sealed sketch must be returned using {@link #recycle(ExaLogLog)}, which
+ * resets it and makes it available for one of the next epochs.
+ *
+ * <p>As {@link ExaLogLog} is not thread-safe, {@link #add(long)} and {@link #addToken(int)} must
+ * not be called concurrently. However, they may be called concurrently with {@link #rotate()} and
+ * {@link #recycle(ExaLogLog)}, which can be used from any thread.
+ */
+public final class RotatingExaLogLog {
+
+  private static final long PIN_WAIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+  static final class Buffer {
+    private final ExaLogLog sketch;
+    private final AtomicInteger pinCount = new AtomicInteger();
+
+    private Buffer(ExaLogLog sketch) {
+      this.sketch = sketch;
+    }
+  }
+
+  private final Buffer[] buffers;
+  private final ArrayDeque<Buffer> freeBuffers;
+  private volatile Buffer activeBuffer;
+  private volatile long epoch;
+
+  private RotatingExaLogLog(Buffer[] buffers) {
+    this.buffers = buffers;
+    this.activeBuffer = buffers[0];
+    this.freeBuffers = new ArrayDeque<>(buffers.length);
+    for (int i = 1; i < buffers.length; ++i) {
+      freeBuffers.add(buffers[i]);
+    }
+  }
+
+  /**
+   * Creates a new rotating sketch.
+   *
+   * @param t the t-parameter
+   * @param d the d-parameter
+   * @param p the precision parameter
+   * @param numBuffers the number of sketches, must be at least 2
+   * @return a new rotating sketch
+   * @throws IllegalArgumentException if any of the parameters is invalid
+   */
+  public static RotatingExaLogLog create(int t, int d, int p, int numBuffers) {
+    if (numBuffers < 2) {
+      throw new IllegalArgumentException("at least two buffers are required");
+    }
+    Buffer[] buffers = new Buffer[numBuffers];
+    for (int i = 0; i < numBuffers; ++i) {
+      buffers[i] = new Buffer(ExaLogLog.create(t, d, p));
+    }
+    return new RotatingExaLogLog(buffers);
+  }
+
+  // visible for testing
+  Buffer pin() {
+    return pin(activeBuffer);
+  }
+
+  // pins the given buffer, which has been read from activeBuffer before, or the new active buffer,
+  // if a rotation happened in between, visible for testing
+  Buffer pin(Buffer buffer) {
+    while (true) {
+      buffer.pinCount.incrementAndGet();
+      if (buffer == activeBuffer) {
+        return buffer;
+      }
+      buffer.pinCount.decrementAndGet();
+      buffer = activeBuffer;
+    }
+  }
+
+  // visible for testing
+  void unpin(Buffer buffer) {
+    buffer.pinCount.decrementAndGet();
+  }
+
+  /**
+   * Adds a new element represented by a 64-bit hash value to the active sketch.
+   *
+   * @param hashValue a 64-bit hash value
+   * @return this
+   */
+  public RotatingExaLogLog add(long hashValue) {
+    Buffer buffer = pin();
+    buffer.sketch.add(hashValue);
+    unpin(buffer);
+    return this;
+  }
+
+  /**
+   * Adds a new element represented by a 32-bit token obtained from {@link
+   * ExaLogLog#computeToken(long)} to the active sketch.
+   *
+   * @param token a 32-bit hash token
+   * @return this
+   */
+  public RotatingExaLogLog addToken(int token) {
+    Buffer buffer = pin();
+    buffer.sketch.addToken(token);
+    unpin(buffer);
+    return this;
+  }
+
+  /**
+   * Starts a new epoch and returns the sealed sketch of the previous epoch.
+   *
+   * <p>The returned sketch will not be modified anymore until it is passed to {@link
+   * #recycle(ExaLogLog)}.
+   *
+   * @return the sealed sketch of the previous epoch
+   * @throws IllegalStateException if there is no empty sketch available, because sealed sketches
+   *     have not been recycled
+   */
+  public synchronized ExaLogLog rotate() {
+    Buffer nextBuffer = freeBuffers.poll();
+    if (nextBuffer == null) {
+      throw new IllegalStateException(
+          "no empty sketch available, sealed sketches must be recycled");
+    }
+    Buffer sealedBuffer = activeBuffer;
+    activeBuffer = nextBuffer;
+    epoch += 1;
+    while (sealedBuffer.pinCount.get() != 0) {
+      LockSupport.parkNanos(PIN_WAIT_PARK_NANOS); // wait for in-flight insertions
+    }
+    return sealedBuffer.sketch;
+  }
+
+  /**
+   * Resets a sealed sketch returned by {@link #rotate()} and makes it available for a future epoch.
+   *
+   * @param sealedSketch the sealed sketch
+   * @throws NullPointerException if the argument is null
+   * @throws IllegalArgumentException if the given sketch is not a sealed sketch of this rotating
+   *     sketch
+   */
+  public synchronized void recycle(ExaLogLog sealedSketch) {
+    requireNonNull(sealedSketch, "null argument");
+    for (Buffer buffer : buffers) {
+      if (buffer.sketch == sealedSketch) {
+        if (buffer == activeBuffer || freeBuffers.contains(buffer)) {
+          break;
+        }
+        sealedSketch.reset();
+        freeBuffers.add(buffer);
+        return;
+      }
+    }
+    throw new IllegalArgumentException("not a sealed sketch of this rotating sketch");
+  }
+
+  /**
+   * Returns the current epoch, which is the number of rotations performed so far.
+   *
+   * @return the current epoch
+   */
+  public long getEpoch() {
+    return epoch;
+  }
+}
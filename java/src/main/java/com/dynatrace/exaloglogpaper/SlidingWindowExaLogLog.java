@@ -0,0 +1,261 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import com.dynatrace.hash4j.util.PackedArray;
+import com.dynatrace.hash4j.util.PackedArray.PackedArrayHandler;
+import java.util.Arrays;
+
+/**
+ * A sliding-window variant of ExaLogLog that allows to query the distinct count of all elements
+ * added at or after any given time within a maximum window.
+ *
+ * <p>Similar to sliding HyperLogLog, each register keeps a list of update values together with the
+ * last time they were observed. An entry is dropped as soon as it can no longer affect any
+ * window: if the same update value is observed again, if an update value larger by more than d
+ * is observed, which makes it fall out of the d-bit history, or if it is older than the maximum
+ * window relative to the latest observation of the register. Queries reconstruct a regular {@link
+ * ExaLogLog} sketch from the entries within the window.
+ *
+ * <p>Times must be non-decreasing. This class is not thread-safe.
+ */
+public final class SlidingWindowExaLogLog {
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  private final int t;
+  private final int d;
+  private final int p;
+  private final long maxWindow;
+
+  // per register, pairs of time and update value ordered by time, null if empty
+  private final long[][] entries;
+  private final int[] numEntries;
+
+  private long latestTime = Long.MIN_VALUE;
+
+  private SlidingWindowExaLogLog(int t, int d, int p, long maxWindow) {
+    this.t = t;
+    this.d = d;
+    this.p = p;
+    this.maxWindow = maxWindow;
+    this.entries = new long[1 << p][];
+    this.numEntries = new int[1 << p];
+  }
+
+  /**
+   * Creates an empty sliding-window ExaLogLog.
+   *
+   * @param t the t-parameter
+   * @param d the d-parameter
+   * @param p the precision parameter
+   * @param maxWindow the maximum window length
+   * @return the new instance
+   * @throws IllegalArgumentException if any of the parameters is invalid
+   */
+  public static SlidingWindowExaLogLog create(int t, int d, int p, long maxWindow) {
+    ExaLogLog.checkTParameter(t);
+    ExaLogLog.checkDParameter(d, t);
+    ExaLogLog.checkPrecisionParameter(p, ExaLogLog.getMinP(), ExaLogLog.getMaxP(t));
+    if (maxWindow < 0) {
+      throw new IllegalArgumentException("illegal maximum window");
+    }
+    return new SlidingWindowExaLogLog(t, d, p, maxWindow);
+  }
+
+  /**
+   * Returns the t-parameter.
+   *
+   * @return the t-parameter
+   */
+  public int getT() {
+    return t;
+  }
+
+  /**
+   * Returns the d-parameter.
+   *
+   * @return the d-parameter
+   */
+  public int getD() {
+    return d;
+  }
+
+  /**
+   * Returns the precision parameter.
+   *
+   * @return the precision parameter
+   */
+  public int getP() {
+    return p;
+  }
+
+  /**
+   * Returns the maximum window length.
+   *
+   * @return the maximum window length
+   */
+  public long getMaxWindow() {
+    return maxWindow;
+  }
+
+  /**
+   * Returns the latest time an element was added.
+   *
+   * @return the latest time, {@link Long#MIN_VALUE} if no element was added yet
+   */
+  public long getLatestTime() {
+    return latestTime;
+  }
+
+  /**
+   * Returns the total number of entries over all registers.
+   *
+   * @return the total number of entries
+   */
+  public long getNumEntries() {
+    long sum = 0;
+    for (int n : numEntries) {
+      sum += n;
+    }
+    return sum;
+  }
+
+  /**
+   * Adds a new element represented by a 64-bit hash value at the given time.
+   *
+   * @param time the time, must not be smaller than the time of any previously added element
+   * @param hashValue a 64-bit hash value
+   * @return this instance
+   * @throws IllegalArgumentException if the time is smaller than the latest time
+   */
+  public SlidingWindowExaLogLog add(long time, long hashValue) {
+    if (time < latestTime) {
+      throw new IllegalArgumentException("time must not decrease");
+    }
+    latestTime = time;
+    long mask = ((1L << t) << p) - 1;
+    int idx = (int) ((hashValue & mask) >>> t);
+    int nlz = Long.numberOfLeadingZeros(hashValue | mask);
+    long k = ((long) nlz << t) + (hashValue & ((1L << t) - 1)) + 1;
+
+    long[] e = entries[idx];
+    int n = numEntries[idx];
+    if (e == null) {
+      e = new long[2 * INITIAL_CAPACITY];
+      entries[idx] = e;
+    }
+    long minTime = time - maxWindow;
+    int w = 0;
+    for (int i = 0; i < n; ++i) {
+      long entryTime = e[2 * i];
+      long entryK = e[2 * i + 1];
+      if (entryTime >= minTime && entryK != k && entryK > k - d - 1) {
+        e[2 * w] = entryTime;
+        e[2 * w + 1] = entryK;
+        w += 1;
+      }
+    }
+    if (2 * w == e.length) {
+      e = Arrays.copyOf(e, 2 * e.length);
+      entries[idx] = e;
+    }
+    e[2 * w] = time;
+    e[2 * w + 1] = k;
+    numEntries[idx] = w + 1;
+    return this;
+  }
+
+  /**
+   * Adds a new element represented by a 32-bit token obtained from {@link
+   * ExaLogLog#computeToken(long)} at the given time.
+   *
+   * @param time the time, must not be smaller than the time of any previously added element
+   * @param token a 32-bit hash token
+   * @return this instance
+   * @throws IllegalArgumentException if the time is smaller than the latest time
+   */
+  public SlidingWindowExaLogLog addToken(long time, int token) {
+    return add(time, DistinctCountUtil.reconstructHash(token, ExaLogLog.V));
+  }
+
+  /**
+   * Returns an {@link ExaLogLog} sketch of all elements added at or after the given time.
+   *
+   * <p>The sketch is exactly the same as if all these elements were added to an empty {@link
+   * ExaLogLog} sketch, as long as the time is not smaller than the latest time minus the maximum
+   * window.
+   *
+   * @param fromTime the start of the window (inclusive)
+   * @return the sketch
+   */
+  public ExaLogLog getSketch(long fromTime) {
+    ExaLogLog sketch = ExaLogLog.create(t, d, p);
+    byte[] state = sketch.getState();
+    PackedArrayHandler registerAccess = PackedArray.getHandler(ExaLogLog.getRegisterBitSize(t, d));
+    for (int idx = 0; idx < entries.length; ++idx) {
+      long[] e = entries[idx];
+      int n = numEntries[idx];
+      // entries are ordered by time
+      int first = n;
+      while (first > 0 && e[2 * (first - 1)] >= fromTime) {
+        first -= 1;
+      }
+      long u = 0;
+      for (int i = first; i < n; ++i) {
+        u = Math.max(u, e[2 * i + 1]);
+      }
+      if (u == 0) {
+        continue;
+      }
+      long r = u << d;
+      if (u <= d) {
+        // like ExaLogLog, treat the initial register value 0 as observed update value
+        r |= 1L << (d - u);
+      }
+      for (int i = first; i < n; ++i) {
+        long delta = u - e[2 * i + 1];
+        if (delta > 0 && delta <= d) {
+          r |= 1L << (d - delta);
+        }
+      }
+      registerAccess.set(state, idx, r);
+    }
+    return sketch;
+  }
+
+  /**
+   * Returns an estimate of the number of distinct elements added at or after the given time.
+   *
+   * @param fromTime the start of the window (inclusive)
+   * @return the distinct count estimate
+   * @see #getSketch(long)
+   */
+  public double getDistinctCountEstimate(long fromTime) {
+    return getSketch(fromTime).getDistinctCountEstimate();
+  }
+}
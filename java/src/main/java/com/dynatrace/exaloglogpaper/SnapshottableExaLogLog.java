@@ -0,0 +1,230 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * An {@link ExaLogLog} sketch that allows to take point-in-time consistent snapshots while elements
+ * are added concurrently.
+ *
+ * <p>The registers are divided into blocks. While a snapshot is taken, the writer copies the
+ * original content of a block into the snapshot before it modifies the block for the first time.
+ * All other blocks are copied by the thread taking the snapshot. Therefore, the writer only pays a
+ * small overhead for the first write to a block after a snapshot has been started, and no full copy
+ * is made on the ingest path.
+ *
+ * <p>As {@link ExaLogLog} is not thread-safe, {@link #add(long)} and {@link #addToken(int)} must
+ * not be called concurrently. However, they may be called concurrently with {@link #snapshot()},
+ * which can be used from any thread.
+ */
+public final class SnapshottableExaLogLog {
+
+  private static final int TARGET_BLOCK_BIT_SIZE = 4096;
+
+  private static final int BLOCK_FREE = 0;
+  private static final int BLOCK_COPYING = 1;
+  private static final int BLOCK_COPIED = 2;
+
+  private final ExaLogLog sketch;
+  // the block index is given by the most significant bits of the register index
+  private final int blockShift;
+  private final int blockMask;
+  private final int blockSizeInBytes;
+  private final AtomicIntegerArray blockStates;
+
+  // the state of the snapshot in progress, null if no snapshot is taken
+  private volatile byte[] snapshotState;
+
+  // incremented before and after each write, odd while a write is in progress
+  private volatile long writeCounter;
+
+  // called with the block index after a block has been copied, but before it is marked as copied,
+  // null by default, visible for testing
+  IntConsumer blockCopyHook;
+
+  // called on each iteration while waiting for another thread, null by default, visible for
+  // testing
+  Runnable waitHook;
+
+  private SnapshottableExaLogLog(ExaLogLog sketch) {
+    this.sketch = sketch;
+    int t = sketch.getT();
+    int p = sketch.getP();
+    int registerBitSize = ExaLogLog.getRegisterBitSize(t, sketch.getD());
+    // use at least 8 registers per block, to make sure that blocks do not share any byte
+    int log2RegistersPerBlock =
+        Math.max(
+            3, 32 - Integer.numberOfLeadingZeros((TARGET_BLOCK_BIT_SIZE - 1) / registerBitSize));
+    if (log2RegistersPerBlock >= p) {
+      this.blockShift = t + p;
+      this.blockMask = 0;
+      this.blockSizeInBytes = sketch.peekState().length;
+    } else {
+      this.blockShift = t + log2RegistersPerBlock;
+      this.blockMask = (1 << (p - log2RegistersPerBlock)) - 1;
+      this.blockSizeInBytes = (registerBitSize << log2RegistersPerBlock) >>> 3;
+    }
+    this.blockStates = new AtomicIntegerArray(blockMask + 1);
+  }
+
+  /**
+   * Creates an empty sketch.
+   *
+   * @param t the t-parameter
+   * @param d the d-parameter
+   * @param p the precision parameter
+   * @return a new sketch
+   */
+  public static SnapshottableExaLogLog create(int t, int d, int p) {
+    return new SnapshottableExaLogLog(ExaLogLog.create(t, d, p));
+  }
+
+  /**
+   * Returns a snapshottable sketch that continues with the state of the given sketch.
+   *
+   * <p>The given sketch must not be used anymore afterwards.
+   *
+   * @param sketch the sketch
+   * @return the new snapshottable sketch
+   * @throws NullPointerException if the argument is null
+   */
+  public static SnapshottableExaLogLog wrap(ExaLogLog sketch) {
+    requireNonNull(sketch, "null argument");
+    return new SnapshottableExaLogLog(sketch);
+  }
+
+  /**
+   * Adds a new element represented by a 64-bit hash value.
+   *
+   * @param hashValue a 64-bit hash value
+   * @return this sketch
+   */
+  public SnapshottableExaLogLog add(long hashValue) {
+    int blockIdx = (int) (hashValue >>> blockShift) & blockMask;
+    long counter = writeCounter;
+    writeCounter = counter + 1;
+    byte[] snapshotStateInProgress = snapshotState;
+    if (snapshotStateInProgress != null) {
+      copyBlock(blockIdx, snapshotStateInProgress);
+    }
+    sketch.add(hashValue);
+    writeCounter = counter + 2;
+    return this;
+  }
+
+  /**
+   * Adds a new element represented by a 32-bit token obtained from {@link
+   * ExaLogLog#computeToken(long)}.
+   *
+   * @param token a 32-bit hash token
+   * @return this sketch
+   */
+  public SnapshottableExaLogLog addToken(int token) {
+    int blockIdx = (token >>> 6 >>> blockShift) & blockMask;
+    long counter = writeCounter;
+    writeCounter = counter + 1;
+    byte[] snapshotStateInProgress = snapshotState;
+    if (snapshotStateInProgress != null) {
+      copyBlock(blockIdx, snapshotStateInProgress);
+    }
+    sketch.addToken(token);
+    writeCounter = counter + 2;
+    return this;
+  }
+
+  // called by the writer before a block is modified for the first time during a snapshot
+  private void copyBlock(int blockIdx, byte[] targetState) {
+    if (blockStates.get(blockIdx) == BLOCK_COPIED || tryCopyBlock(blockIdx, targetState)) {
+      return;
+    }
+    // wait until the block has been copied by the thread taking the snapshot
+    while (blockStates.get(blockIdx) != BLOCK_COPIED) {
+      onWait();
+    }
+  }
+
+  private void onWait() {
+    Runnable hook = waitHook;
+    if (hook != null) {
+      hook.run();
+    }
+    Thread.onSpinWait();
+  }
+
+  private boolean tryCopyBlock(int blockIdx, byte[] targetState) {
+    if (!blockStates.compareAndSet(blockIdx, BLOCK_FREE, BLOCK_COPYING)) {
+      return false;
+    }
+    int offset = blockIdx * blockSizeInBytes;
+    System.arraycopy(sketch.peekState(), offset, targetState, offset, blockSizeInBytes);
+    IntConsumer hook = blockCopyHook;
+    if (hook != null) {
+      hook.accept(blockIdx);
+    }
+    blockStates.set(blockIdx, BLOCK_COPIED);
+    return true;
+  }
+
+  private void awaitInFlightWrite() {
+    long counter = writeCounter;
+    if ((counter & 1) != 0) {
+      while (writeCounter == counter) {
+        onWait();
+      }
+    }
+  }
+
+  /**
+   * Returns a copy of this sketch that reflects its state at a single point in time between the
+   * invocation and the return of this method.
+   *
+   * @return a point-in-time consistent copy of this sketch
+   */
+  public synchronized ExaLogLog snapshot() {
+    byte[] targetState = new byte[sketch.peekState().length];
+    for (int blockIdx = 0; blockIdx <= blockMask; ++blockIdx) {
+      blockStates.set(blockIdx, BLOCK_FREE);
+    }
+    snapshotState = targetState;
+    // a write, that has started before the snapshot state was published, must not be copied
+    // partially
+    awaitInFlightWrite();
+    for (int blockIdx = 0; blockIdx <= blockMask; ++blockIdx) {
+      // if the copy fails, the block is copied by the writer before its write completes
+      tryCopyBlock(blockIdx, targetState);
+    }
+    snapshotState = null;
+    // a write, that has seen the snapshot state, might still copy a block or access the block
+    // states
+    awaitInFlightWrite();
+    return ExaLogLog.wrap(sketch.getT(), sketch.getD(), targetState);
+  }
+}
@@ -0,0 +1,116 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class CachingExaLogLogTest {
+
+  private static long[] skewedHashValues(SplittableRandom random, int numValues) {
+    long[] distinctHashValues = random.longs(1000).toArray();
+    long[] hashValues = new long[numValues];
+    for (int i = 0; i < numValues; ++i) {
+      // squaring a uniform random number favors small indices
+      double u = random.nextDouble();
+      hashValues[i] = distinctHashValues[(int) (u * u * distinctHashValues.length)];
+    }
+    return hashValues;
+  }
+
+  @Test
+  void testAdd() {
+    SplittableRandom random = new SplittableRandom(0x71e3c0a95d2b48f6L);
+    for (int log2CacheSize = 1; log2CacheSize <= 12; ++log2CacheSize) {
+      CachingExaLogLog cachingSketch = CachingExaLogLog.create(2, 20, 8, log2CacheSize);
+      assertThat(cachingSketch.getLog2CacheSize()).isEqualTo(log2CacheSize);
+      ExaLogLog expected = ExaLogLog.create(2, 20, 8);
+      for (long hashValue : skewedHashValues(random, 100000)) {
+        assertThat(cachingSketch.add(hashValue)).isSameAs(cachingSketch);
+        expected.add(hashValue);
+      }
+      assertThat(cachingSketch.getSketch().getState()).isEqualTo(expected.getState());
+      assertThat(cachingSketch.getDistinctCountEstimate())
+          .isEqualTo(expected.getDistinctCountEstimate());
+    }
+  }
+
+  @Test
+  void testAddToken() {
+    SplittableRandom random = new SplittableRandom(0x0c85a7f2e13b96d4L);
+    CachingExaLogLog cachingSketch = CachingExaLogLog.create(1, 9, 12, 8);
+    ExaLogLog expected = ExaLogLog.create(1, 9, 12);
+    for (long hashValue : skewedHashValues(random, 100000)) {
+      int token = ExaLogLog.computeToken(hashValue);
+      assertThat(cachingSketch.addToken(token)).isSameAs(cachingSketch);
+      expected.addToken(token);
+    }
+    assertThat(cachingSketch.getSketch().getState()).isEqualTo(expected.getState());
+  }
+
+  @Test
+  void testInitialCacheNeverMatches() {
+    for (long hashValue = 0; hashValue < 16; ++hashValue) {
+      CachingExaLogLog cachingSketch = CachingExaLogLog.create(0, 0, 2, 4);
+      cachingSketch.add(hashValue);
+      assertThat(cachingSketch.getSketch().getState())
+          .isEqualTo(ExaLogLog.create(0, 0, 2).add(hashValue).getState());
+    }
+  }
+
+  @Test
+  void testClearCacheAndReset() {
+    ExaLogLog sketch = ExaLogLog.create(2, 20, 4);
+    CachingExaLogLog cachingSketch = CachingExaLogLog.wrap(sketch, 4);
+    assertThat(cachingSketch.getSketch()).isSameAs(sketch);
+
+    cachingSketch.add(0x1234567890abcdefL);
+    sketch.reset();
+    assertThat(cachingSketch.clearCache()).isSameAs(cachingSketch);
+    cachingSketch.add(0x1234567890abcdefL);
+    assertThat(sketch.getState())
+        .isEqualTo(ExaLogLog.create(2, 20, 4).add(0x1234567890abcdefL).getState());
+
+    assertThat(cachingSketch.reset()).isSameAs(cachingSketch);
+    assertThat(sketch.getState()).isEqualTo(ExaLogLog.create(2, 20, 4).getState());
+    cachingSketch.add(0x1234567890abcdefL);
+    assertThat(sketch.getState())
+        .isEqualTo(ExaLogLog.create(2, 20, 4).add(0x1234567890abcdefL).getState());
+  }
+
+  @Test
+  void testIllegalArguments() {
+    assertThatIllegalArgumentException().isThrownBy(() -> CachingExaLogLog.create(2, 20, 8, 0));
+    assertThatIllegalArgumentException().isThrownBy(() -> CachingExaLogLog.create(2, 20, 8, 21));
+    assertThatIllegalArgumentException().isThrownBy(() -> CachingExaLogLog.create(2, 20, 1, 8));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> CachingExaLogLog.wrap(ExaLogLog.create(2, 20, 8), 0));
+    assertThatNullPointerException().isThrownBy(() -> CachingExaLogLog.wrap(null, 8));
+  }
+}
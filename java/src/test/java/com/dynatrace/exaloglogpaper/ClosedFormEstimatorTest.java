@@ -0,0 +1,132 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class ClosedFormEstimatorTest {
+
+  // sums up the state change probabilities of all update values individually
+  private static double computeExpectedStateChangeProbabilityReference(
+      int t, int d, int numLevels, double lambda) {
+    int numValues = numLevels << t;
+    double[] probabilities = new double[numValues + 1];
+    for (int k = 1; k <= numValues; ++k) {
+      probabilities[k] = Math.pow(2., -((k - 1) >>> t) - 1 - t);
+    }
+    double sum = 0;
+    for (int k = 1; k <= numValues; ++k) {
+      // probability of values greater than k + d assuming an infinite number of levels
+      double tail = Math.pow(2., -((k + d - 1) >>> t) - 1);
+      for (int j = k + d + 1; j <= numValues && ((j - 1) >>> t) == ((k + d - 1) >>> t); ++j) {
+        tail += probabilities[j];
+      }
+      sum += probabilities[k] * Math.exp(-lambda * (probabilities[k] + tail));
+    }
+    return sum;
+  }
+
+  @Test
+  void testExpectedStateChangeProbability() {
+    for (int t = 0; t <= 3; ++t) {
+      for (int d : new int[] {0, 1, 3, 8, 13, 20}) {
+        if (d > ExaLogLog.getMaxD(t)) continue;
+        assertThat(ClosedFormEstimator.computeExpectedStateChangeProbability(t, d, 40, 0.))
+            .isCloseTo(1., withPercentage(1e-9));
+        for (double lambda : new double[] {1e-3, 0.5, 1., 7., 1000., 1e6}) {
+          assertThat(ClosedFormEstimator.computeExpectedStateChangeProbability(t, d, 40, lambda))
+              .isCloseTo(
+                  computeExpectedStateChangeProbabilityReference(t, d, 40, lambda),
+                  withPercentage(1e-7));
+        }
+        double h = 1e-7;
+        assertThat(
+                ClosedFormEstimator.computeExpectedStateChangeProbabilityDerivativeAtZero(t, d, 40))
+            .isCloseTo(
+                (computeExpectedStateChangeProbabilityReference(t, d, 40, 0.)
+                        - computeExpectedStateChangeProbabilityReference(t, d, 40, h))
+                    / h,
+                withPercentage(1e-3));
+      }
+    }
+  }
+
+  @Test
+  void testTable() {
+    for (int t = 0; t <= 3; ++t) {
+      for (int d : new int[] {0, 2, 9, 20}) {
+        if (d > ExaLogLog.getMaxD(t)) continue;
+        double[] table = ClosedFormEstimator.computeTable(t, d);
+        for (int i = 64; i < table.length; i += 64) {
+          double y = i / 64.;
+          double lambda = table[i] * (Math.pow(2., y) - 1.);
+          assertThat(ClosedFormEstimator.computeExpectedStateChangeProbability(t, d, 80, lambda))
+              .isCloseTo(Math.pow(2., -y), withPercentage(1e-3));
+        }
+      }
+    }
+  }
+
+  @Test
+  void testEstimate() {
+    SplittableRandom random = new SplittableRandom(0x5f1c8a07d3e92b64L);
+    int numCycles = 100;
+    long[] distinctCounts = {1, 10, 100, 1000, 10000, 100000};
+    for (int t : new int[] {0, 1, 2}) {
+      int d = new int[] {2, 9, 20}[t];
+      int p = 8;
+      double[] sumRelativeErrors = new double[distinctCounts.length];
+      for (int cycle = 0; cycle < numCycles; ++cycle) {
+        ExaLogLog sketch = ExaLogLog.create(t, d, p);
+        assertThat(sketch.getDistinctCountEstimate(ExaLogLog.CLOSED_FORM_ESTIMATOR)).isZero();
+        long numAdded = 0;
+        for (int i = 0; i < distinctCounts.length; ++i) {
+          for (; numAdded < distinctCounts[i]; ++numAdded) {
+            sketch.add(random.nextLong());
+          }
+          double estimate = sketch.getDistinctCountEstimate(ExaLogLog.CLOSED_FORM_ESTIMATOR);
+          sumRelativeErrors[i] += estimate / distinctCounts[i] - 1.;
+        }
+      }
+      for (int i = 0; i < distinctCounts.length; ++i) {
+        assertThat(sumRelativeErrors[i] / numCycles).isCloseTo(0., within(0.02));
+      }
+    }
+  }
+
+  @Test
+  void testSaturatedSketch() {
+    ExaLogLog sketch = ExaLogLog.create(0, 0, 4);
+    for (long hash = 0; hash < 16; ++hash) {
+      sketch.add(hash);
+    }
+    assertThat(sketch.getDistinctCountEstimate(ExaLogLog.CLOSED_FORM_ESTIMATOR)).isInfinite();
+  }
+}
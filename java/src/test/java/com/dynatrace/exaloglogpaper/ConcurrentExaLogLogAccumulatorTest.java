@@ -0,0 +1,147 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentExaLogLogAccumulatorTest {
+
+  private static ExaLogLog createRandomSketch(int t, int d, int p, SplittableRandom random) {
+    ExaLogLog sketch = ExaLogLog.create(t, d, p);
+    long distinctCount = random.nextLong(10000);
+    for (long i = 0; i < distinctCount; ++i) {
+      sketch.add(random.nextLong());
+    }
+    return sketch;
+  }
+
+  @Test
+  void testSequentialAdd() {
+    int[] tValues = {0, 1, 2, 3};
+    int[] pValues = {2, 3, 4, 6, 8};
+    int[] dValues = {0, 1, 5, 9, 20};
+    SplittableRandom random = new SplittableRandom(0x2d1c8e9f4a7b3560L);
+
+    for (int i = 0; i < 100; ++i) {
+      int t = tValues[random.nextInt(tValues.length)];
+      int p = pValues[random.nextInt(pValues.length)];
+      int d = dValues[random.nextInt(dValues.length)];
+      ConcurrentExaLogLogAccumulator accumulator = ConcurrentExaLogLogAccumulator.create(t, d, p);
+      assertThat(accumulator.getT()).isEqualTo(t);
+      assertThat(accumulator.getD()).isEqualTo(d);
+      assertThat(accumulator.getP()).isEqualTo(p);
+      ExaLogLog expected = ExaLogLog.create(t, d, p);
+      for (int j = 0; j < 3; ++j) {
+        int otherP = p + random.nextInt(3);
+        int otherD = d + random.nextInt(3);
+        ExaLogLog sketch = createRandomSketch(t, otherD, otherP, random);
+        accumulator.add(sketch);
+        expected.add(sketch);
+      }
+      assertThat(accumulator.toExaLogLog().getState()).isEqualTo(expected.getState());
+      assertThat(accumulator.getDistinctCountEstimate())
+          .isEqualTo(expected.getDistinctCountEstimate());
+      accumulator.reset();
+      assertThat(accumulator.getDistinctCountEstimate()).isZero();
+      assertThat(accumulator.toExaLogLog().getState()).containsOnly(0);
+    }
+  }
+
+  @Test
+  void testConcurrentAdd() throws Exception {
+    int t = 2;
+    int d = 20;
+    int p = 10;
+    int numThreads = 8;
+    int numSketchesPerThread = 50;
+    SplittableRandom random = new SplittableRandom(0x6a3f1b9d2c8e7045L);
+    List<List<ExaLogLog>> sketches = new ArrayList<>();
+    ExaLogLog expected = ExaLogLog.create(t, d, p);
+    for (int i = 0; i < numThreads; ++i) {
+      List<ExaLogLog> threadSketches = new ArrayList<>();
+      for (int j = 0; j < numSketchesPerThread; ++j) {
+        ExaLogLog sketch = createRandomSketch(t, d, p + random.nextInt(2), random);
+        threadSketches.add(sketch);
+        expected.add(sketch);
+      }
+      sketches.add(threadSketches);
+    }
+
+    ConcurrentExaLogLogAccumulator accumulator = ConcurrentExaLogLogAccumulator.create(t, d, p);
+    ExecutorService executorService = Executors.newFixedThreadPool(numThreads + 1);
+    try {
+      AtomicBoolean finished = new AtomicBoolean();
+      Future<?> reader =
+          executorService.submit(
+              () -> {
+                while (!finished.get()) {
+                  assertThat(accumulator.getDistinctCountEstimate()).isFinite();
+                }
+              });
+      List<Future<?>> writers = new ArrayList<>();
+      for (List<ExaLogLog> threadSketches : sketches) {
+        writers.add(executorService.submit(() -> threadSketches.forEach(accumulator::add)));
+      }
+      for (Future<?> writer : writers) {
+        writer.get();
+      }
+      finished.set(true);
+      reader.get();
+    } finally {
+      executorService.shutdown();
+    }
+    assertThat(accumulator.toExaLogLog().getState()).isEqualTo(expected.getState());
+  }
+
+  @Test
+  void testIllegalArguments() {
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ConcurrentExaLogLogAccumulator.create(-1, 0, 4));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ConcurrentExaLogLogAccumulator.create(2, -1, 4));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ConcurrentExaLogLogAccumulator.create(2, 20, 1));
+
+    ConcurrentExaLogLogAccumulator accumulator = ConcurrentExaLogLogAccumulator.create(2, 20, 8);
+    assertThatNullPointerException().isThrownBy(() -> accumulator.add(null));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> accumulator.add(ExaLogLog.create(1, 20, 8)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> accumulator.add(ExaLogLog.create(2, 19, 8)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> accumulator.add(ExaLogLog.create(2, 20, 7)));
+  }
+}
@@ -0,0 +1,72 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ContributionTableTest {
+
+  private static void verifyTable(int t, int d, int p) {
+    ContributionTable table = ContributionTable.get(t, d, p);
+    assertThat(table).isNotNull().isSameAs(ContributionTable.get(t, d, p));
+    int numValues = 1 << ExaLogLog.getRegisterBitSize(t, d);
+    int[] b = new int[64];
+    int[] bExpected = new int[64];
+    for (int r = 0; r < numValues; ++r) {
+      long expected = ExaLogLog.contribute(r, bExpected, t, d, p);
+      assertThat(table.contribute(r, null)).isEqualTo(expected);
+      assertThat(table.contribute(r, b)).isEqualTo(expected);
+      if ((r & 0xFF) == 0xFF) {
+        assertThat(b).isEqualTo(bExpected);
+      }
+    }
+    assertThat(b).isEqualTo(bExpected);
+  }
+
+  @Test
+  void testTable() {
+    for (int t = 0; t <= ContributionTable.MAX_T; ++t) {
+      for (int d = 0; d <= ExaLogLog.getMaxD(t); ++d) {
+        if (ExaLogLog.getRegisterBitSize(t, d) > ContributionTable.MAX_REGISTER_BIT_SIZE) {
+          continue;
+        }
+        for (int p : new int[] {ExaLogLog.getMinP(), 8, ExaLogLog.getMaxP(t)}) {
+          verifyTable(t, d, p);
+        }
+      }
+    }
+  }
+
+  @Test
+  void testUnsupportedParameters() {
+    assertThat(ContributionTable.get(3, 0, 8)).isNull();
+    assertThat(ContributionTable.get(0, 11, 8)).isNull();
+    assertThat(ContributionTable.get(2, 20, 8)).isNull();
+  }
+}
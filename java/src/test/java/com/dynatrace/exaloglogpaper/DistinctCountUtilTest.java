@@ -32,8 +32,13 @@ import static org.assertj.core.data.Percentage.withPercentage;
 
 import com.dynatrace.hash4j.random.PseudoRandomGenerator;
 import com.dynatrace.hash4j.random.PseudoRandomGeneratorProvider;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 import org.assertj.core.data.Percentage;
 import org.hipparchus.analysis.UnivariateFunction;
 import org.hipparchus.analysis.solvers.BisectionSolver;
@@ -249,6 +254,168 @@ class DistinctCountUtilTest {
     }
   }
 
+  // sorted tokens including duplicates and some invalid tokens
+  private static int[] getRandomSortedTokens(SplittableRandom random, int numTokens, int v) {
+    long[] hashes = random.longs(Math.max(1, numTokens / 2)).toArray();
+    int[] tokens = new int[numTokens];
+    for (int i = 0; i < numTokens; ++i) {
+      if (random.nextInt(16) == 0) {
+        tokens[i] = random.nextInt();
+      } else {
+        tokens[i] = DistinctCountUtil.computeToken(hashes[random.nextInt(hashes.length)], v);
+      }
+    }
+    Arrays.sort(tokens);
+    return tokens;
+  }
+
+  @Test
+  void testParallelEstimationFromTokens() {
+    SplittableRandom random = new SplittableRandom(0x6b2f9e4d1a7c3085L);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int v : new int[] {1, 6, 12, 20, 26}) {
+        for (int numTokens :
+            new int[] {0, 1, 1000, TOKEN_PARALLELISM_THRESHOLD + 1, 1000000, 3000000}) {
+          int[] tokens = getRandomSortedTokens(random, numTokens, v);
+          double expected =
+              DistinctCountUtil.estimateDistinctCountFromTokens(fromSortedArray(tokens), v);
+          assertThat(DistinctCountUtil.estimateDistinctCountFromTokens(tokens, v, pool))
+              .isEqualTo(expected);
+
+          // direct buffer with additional valid tokens outside of the range between the position
+          // and the limit, which must be ignored
+          IntBuffer buffer =
+              ByteBuffer.allocateDirect((numTokens + 2) * Integer.BYTES).asIntBuffer();
+          buffer.put(DistinctCountUtil.computeToken(0, v));
+          buffer.put(tokens);
+          buffer.put(DistinctCountUtil.computeToken(-1L, v));
+          buffer.position(1).limit(numTokens + 1);
+          assertThat(DistinctCountUtil.estimateDistinctCountFromTokens(buffer, v, pool))
+              .isEqualTo(expected);
+          assertThat(buffer.position()).isEqualTo(1);
+          assertThat(buffer.limit()).isEqualTo(numTokens + 1);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void testEstimationFromUnsortedTokens() {
+    SplittableRandom random = new SplittableRandom(0x92d4a7e03c5b1f68L);
+    for (int v : new int[] {1, 6, 12, 20, 26}) {
+      for (int numTokens : new int[] {0, 1, 10, 1000, 100000, 1000000}) {
+        int[] sortedTokens = getRandomSortedTokens(random, numTokens, v);
+        double expected =
+            DistinctCountUtil.estimateDistinctCountFromTokens(fromSortedArray(sortedTokens), v);
+
+        int[] tokens = sortedTokens.clone();
+        for (int i = tokens.length - 1; i > 0; --i) {
+          int k = random.nextInt(i + 1);
+          int token = tokens[i];
+          tokens[i] = tokens[k];
+          tokens[k] = token;
+        }
+        assertThat(DistinctCountUtil.estimateDistinctCountFromUnsortedTokens(tokens, v))
+            .isEqualTo(expected);
+        assertThat(
+                DistinctCountUtil.estimateDistinctCountFromUnsortedTokens(
+                    fromSortedArray(tokens), v))
+            .isEqualTo(expected);
+      }
+    }
+  }
+
+  @Test
+  void testEstimationFromAllUnsortedTokens() {
+    for (int v = V_MIN; v <= 12; ++v) {
+      assertThat(
+              DistinctCountUtil.estimateDistinctCountFromUnsortedTokens(
+                  getTestTokens(getMaxValidToken(v) + 1), v))
+          .isInfinite();
+      assertThat(
+              DistinctCountUtil.estimateDistinctCountFromUnsortedTokens(
+                  getTestTokens(getMaxValidToken(v)), v))
+          .isEqualTo(
+              DistinctCountUtil.estimateDistinctCountFromTokens(
+                  getTestTokens(getMaxValidToken(v)), v));
+    }
+  }
+
+  @Test
+  void testTokenSetInitialNumSlots() {
+    assertThat(TokenSet.computeInitialNumSlots(0)).isEqualTo(16);
+    assertThat(TokenSet.computeInitialNumSlots(1)).isEqualTo(16);
+    assertThat(TokenSet.computeInitialNumSlots(7)).isEqualTo(16);
+    assertThat(TokenSet.computeInitialNumSlots(8)).isEqualTo(32);
+    assertThat(TokenSet.computeInitialNumSlots(1000)).isEqualTo(2048);
+    assertThat(TokenSet.computeInitialNumSlots(TokenSet.MAX_NUM_SLOTS / 4 - 1))
+        .isEqualTo(TokenSet.MAX_NUM_SLOTS / 2);
+    assertThat(TokenSet.computeInitialNumSlots(TokenSet.MAX_NUM_SLOTS / 4))
+        .isEqualTo(TokenSet.MAX_NUM_SLOTS);
+    assertThat(TokenSet.computeInitialNumSlots((1 << 29) - 1)).isEqualTo(TokenSet.MAX_NUM_SLOTS);
+    assertThat(TokenSet.computeInitialNumSlots(1 << 29)).isEqualTo(TokenSet.MAX_NUM_SLOTS);
+    assertThat(TokenSet.computeInitialNumSlots(Integer.MAX_VALUE))
+        .isEqualTo(TokenSet.MAX_NUM_SLOTS);
+  }
+
+  @Test
+  void testTokenSet() {
+    SplittableRandom random = new SplittableRandom(0x1e6b93d2a04f7c58L);
+    for (int v : new int[] {4, 12, 26}) {
+      for (int expectedSize : new int[] {0, 10, 1 << 29}) {
+        TokenSet tokenSet = new TokenSet(expectedSize, v);
+        // for v = 26 the tokens cover all 32 bits including negative values
+        int[] distinctTokens = random.ints(10000).map(i -> i >>> (26 - v)).distinct().toArray();
+        Set<Integer> contained = new HashSet<>();
+        for (int i = 0; i < 20000; ++i) {
+          int token = distinctTokens[random.nextInt(distinctTokens.length)];
+          assertThat(tokenSet.add(token)).isEqualTo(contained.add(token));
+        }
+        assertThat(tokenSet.usesBitSet()).isEqualTo(v < 26 || expectedSize == 1 << 29);
+      }
+    }
+  }
+
+  @Test
+  void testEstimationFromUnsortedTokensUsingBitSet() {
+    SplittableRandom random = new SplittableRandom(0x5a0c3e97d14b2f86L);
+    int v = 26;
+    int[] sortedTokens = getRandomSortedTokens(random, 100000, v);
+    assertThat(sortedTokens[0]).isNegative();
+    double expected =
+        DistinctCountUtil.estimateDistinctCountFromTokens(fromSortedArray(sortedTokens), v);
+    // an expected number of 2^29 tokens makes the token set use the bit set from the beginning
+    assertThat(
+            DistinctCountUtil.estimateDistinctCountFromUnsortedTokens(
+                fromSortedArray(sortedTokens).iterator(), v, 1 << 29, null))
+        .isEqualTo(expected);
+  }
+
+  @Test
+  void testEstimationFromComputedSortedDistinctTokens() {
+    SplittableRandom random = new SplittableRandom(0x0c5e8a3f6d91b274L);
+    for (int v : new int[] {1, 6, 12, 20, 26}) {
+      for (int numHashValues : new int[] {0, 1, 1000, 1000000}) {
+        long[] hashValues = random.longs(numHashValues).toArray();
+        int[] tokens = new int[numHashValues];
+        int[] buffer = new int[numHashValues];
+        int numDistinctTokens =
+            computeSortedDistinctTokens(hashValues, 0, numHashValues, v, tokens, buffer);
+        int[] unsortedTokens = new int[numHashValues];
+        for (int i = 0; i < numHashValues; ++i) {
+          unsortedTokens[i] = computeToken(hashValues[i], v);
+        }
+        assertThat(
+                estimateDistinctCountFromTokens(
+                    fromSortedArray(Arrays.copyOf(tokens, numDistinctTokens)), v))
+            .isEqualTo(estimateDistinctCountFromUnsortedTokens(unsortedTokens, v));
+      }
+    }
+  }
+
   private static TokenIterable getTestTokens(int maxTokenExclusive) {
 
     long maxTokenExclusiveLong = maxTokenExclusive & 0xFFFFFFFFL;
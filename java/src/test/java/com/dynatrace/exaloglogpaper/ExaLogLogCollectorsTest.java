@@ -0,0 +1,173 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.dynatrace.hash4j.hashing.Hasher64;
+import com.dynatrace.hash4j.hashing.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class ExaLogLogCollectorsTest {
+
+  private static final Hasher64 HASHER = Hashing.komihash5_0();
+
+  private static long[] randomValues(int numValues) {
+    return new SplittableRandom(0x6c1d84a3f90e27b5L).longs(numValues).toArray();
+  }
+
+  @Test
+  void testLongsToExaLogLog() {
+    long[] values = randomValues(100000);
+    ExaLogLog expected = ExaLogLog.create(2, 20, 10);
+    for (long value : values) {
+      expected.add(HASHER.hashLongToLong(value));
+    }
+    List<Long> boxedValues = LongStream.of(values).boxed().collect(Collectors.toList());
+    ExaLogLog sequential =
+        boxedValues.stream().collect(ExaLogLogCollectors.longsToExaLogLog(2, 20, 10, HASHER));
+    ExaLogLog parallel =
+        boxedValues
+            .parallelStream()
+            .collect(ExaLogLogCollectors.longsToExaLogLog(2, 20, 10, HASHER));
+    assertThat(sequential.getState()).isEqualTo(expected.getState());
+    assertThat(parallel.getState()).isEqualTo(expected.getState());
+  }
+
+  @Test
+  void testBytesToExaLogLog() {
+    List<byte[]> values =
+        IntStream.range(0, 100000)
+            .mapToObj(i -> ("element" + i).getBytes(StandardCharsets.UTF_8))
+            .collect(Collectors.toList());
+    ExaLogLog expected = ExaLogLog.create(1, 9, 8);
+    for (byte[] value : values) {
+      expected.add(HASHER.hashBytesToLong(value));
+    }
+    ExaLogLog sequential =
+        values.stream().collect(ExaLogLogCollectors.bytesToExaLogLog(1, 9, 8, HASHER));
+    ExaLogLog parallel =
+        values.parallelStream().collect(ExaLogLogCollectors.bytesToExaLogLog(1, 9, 8, HASHER));
+    assertThat(sequential.getState()).isEqualTo(expected.getState());
+    assertThat(parallel.getState()).isEqualTo(expected.getState());
+  }
+
+  @Test
+  void testCollectHashValues() {
+    long[] hashValues = randomValues(100000);
+    ExaLogLog expected = ExaLogLog.create(2, 24, 12);
+    for (long hashValue : hashValues) {
+      expected.add(hashValue);
+    }
+    assertThat(
+            ExaLogLogCollectors.collectHashValues(LongStream.of(hashValues), 2, 24, 12).getState())
+        .isEqualTo(expected.getState());
+    assertThat(
+            ExaLogLogCollectors.collectHashValues(
+                    LongStream.of(hashValues).parallel(), 2, 24, 12)
+                .getState())
+        .isEqualTo(expected.getState());
+  }
+
+  @Test
+  void testCollectTokens() {
+    long[] hashValues = randomValues(100000);
+    ExaLogLog expected = ExaLogLog.create(2, 20, 8);
+    for (long hashValue : hashValues) {
+      expected.add(hashValue);
+    }
+    int[] tokens = LongStream.of(hashValues).mapToInt(ExaLogLog::computeToken).toArray();
+    assertThat(ExaLogLogCollectors.collectTokens(IntStream.of(tokens), 2, 20, 8).getState())
+        .isEqualTo(expected.getState());
+    assertThat(
+            ExaLogLogCollectors.collectTokens(IntStream.of(tokens).parallel(), 2, 20, 8)
+                .getState())
+        .isEqualTo(expected.getState());
+  }
+
+  @Test
+  void testCollectLongTokens() {
+    long[] hashValues = randomValues(100000);
+    ExaLogLog expected = ExaLogLog.create(1, 9, 10);
+    for (long hashValue : hashValues) {
+      expected.add(hashValue);
+    }
+    long[] tokens = LongStream.of(hashValues).map(ExaLogLog::computeToken).toArray();
+    assertThat(ExaLogLogCollectors.collectLongTokens(LongStream.of(tokens), 1, 9, 10).getState())
+        .isEqualTo(expected.getState());
+    assertThat(
+            ExaLogLogCollectors.collectLongTokens(LongStream.of(tokens).parallel(), 1, 9, 10)
+                .getState())
+        .isEqualTo(expected.getState());
+  }
+
+  @Test
+  void testEmptyStreams() {
+    ExaLogLog empty = ExaLogLog.create(2, 20, 8);
+    assertThat(ExaLogLogCollectors.collectHashValues(LongStream.empty(), 2, 20, 8).getState())
+        .isEqualTo(empty.getState());
+    assertThat(ExaLogLogCollectors.collectTokens(IntStream.empty(), 2, 20, 8).getState())
+        .isEqualTo(empty.getState());
+    assertThat(ExaLogLogCollectors.collectLongTokens(LongStream.empty(), 2, 20, 8).getState())
+        .isEqualTo(empty.getState());
+    assertThat(
+            List.<Long>of().stream()
+                .collect(ExaLogLogCollectors.longsToExaLogLog(2, 20, 8, HASHER))
+                .getState())
+        .isEqualTo(empty.getState());
+  }
+
+  @Test
+  void testIllegalArguments() {
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogCollectors.longsToExaLogLog(-1, 20, 8, HASHER));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogCollectors.bytesToExaLogLog(2, 59, 8, HASHER));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogCollectors.collectHashValues(LongStream.empty(), 2, 20, 1));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogCollectors.collectTokens(IntStream.empty(), 2, 20, 60));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogCollectors.collectLongTokens(LongStream.empty(), 2, -1, 8));
+    assertThatNullPointerException()
+        .isThrownBy(() -> ExaLogLogCollectors.longsToExaLogLog(2, 20, 8, null));
+    assertThatNullPointerException()
+        .isThrownBy(() -> ExaLogLogCollectors.bytesToExaLogLog(2, 20, 8, null));
+    assertThatNullPointerException()
+        .isThrownBy(() -> ExaLogLogCollectors.collectHashValues(null, 2, 20, 8));
+    assertThatNullPointerException()
+        .isThrownBy(() -> ExaLogLogCollectors.collectTokens(null, 2, 20, 8));
+    assertThatNullPointerException()
+        .isThrownBy(() -> ExaLogLogCollectors.collectLongTokens(null, 2, 20, 8));
+  }
+}
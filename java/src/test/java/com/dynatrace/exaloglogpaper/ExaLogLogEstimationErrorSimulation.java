@@ -92,10 +92,12 @@ public class ExaLogLogEstimationErrorSimulation {
     long[][] numIterations = new long[targetDistinctCounts.size()][];
     double[][] estimatedDistinctCountsML = new double[targetDistinctCounts.size()][];
     double[][] estimatedDistinctCountsMartingale = new double[targetDistinctCounts.size()][];
+    double[][] estimatedDistinctCountsClosedForm = new double[targetDistinctCounts.size()][];
     for (int i = 0; i < targetDistinctCounts.size(); ++i) {
       numIterations[i] = new long[numCycles];
       estimatedDistinctCountsML[i] = new double[numCycles];
       estimatedDistinctCountsMartingale[i] = new double[numCycles];
+      estimatedDistinctCountsClosedForm[i] = new double[numCycles];
     }
 
     PseudoRandomGeneratorProvider prgProvider = PseudoRandomGeneratorProvider.splitMix64_V1();
@@ -157,6 +159,9 @@ public class ExaLogLogEstimationErrorSimulation {
                                   solverStatistics.iterationCounter;
                               estimatedDistinctCountsMartingale[distinctCountIndex][i] =
                                   martingaleEstimator.getDistinctCountEstimate();
+                              estimatedDistinctCountsClosedForm[distinctCountIndex][i] =
+                                  sketch.getDistinctCountEstimate(
+                                      ExaLogLog.CLOSED_FORM_ESTIMATOR);
                             }
                           }))
           .get();
@@ -194,6 +199,8 @@ public class ExaLogLogEstimationErrorSimulation {
       writer.write("; min num iterations");
       writer.write("; mean num iterations");
       writer.write("; max num iterations");
+      writer.write("; relative bias closed form");
+      writer.write("; relative rmse closed form");
       writer.write('\n');
 
       for (int distinctCountIndex = 0;
@@ -213,6 +220,12 @@ public class ExaLogLogEstimationErrorSimulation {
         double relativeRmseMartingale =
             TestUtils.calculateRmse(
                 estimatedDistinctCountsMartingale[distinctCountIndex], trueDistinctCount);
+        double relativeBiasClosedForm =
+            TestUtils.calculateBias(
+                estimatedDistinctCountsClosedForm[distinctCountIndex], trueDistinctCount);
+        double relativeRmseClosedForm =
+            TestUtils.calculateRmse(
+                estimatedDistinctCountsClosedForm[distinctCountIndex], trueDistinctCount);
         long minNumIterations = LongStream.of(numIterations[distinctCountIndex]).min().getAsLong();
         double meanNumIterations =
             LongStream.of(numIterations[distinctCountIndex]).average().getAsDouble();
@@ -228,6 +241,8 @@ public class ExaLogLogEstimationErrorSimulation {
         writer.write("; " + minNumIterations);
         writer.write("; " + meanNumIterations);
         writer.write("; " + maxNumIterations);
+        writer.write("; " + relativeBiasClosedForm);
+        writer.write("; " + relativeRmseClosedForm);
 
         writer.write('\n');
       }
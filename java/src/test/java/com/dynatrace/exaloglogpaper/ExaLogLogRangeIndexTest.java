@@ -0,0 +1,135 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class ExaLogLogRangeIndexTest {
+
+  @Test
+  void testUnions() {
+    SplittableRandom random = new SplittableRandom(0x3f86b1d02e7ca954L);
+    ExaLogLogRangeIndex index =
+        ExaLogLogRangeIndex.create(2, new int[] {20, 20, 16}, new int[] {10, 10, 9, 8});
+    List<long[]> hashValues = new ArrayList<>();
+    int numBuckets = 100;
+    for (int i = 0; i < numBuckets; ++i) {
+      long[] bucketHashValues = random.longs(random.nextInt(200)).toArray();
+      ExaLogLog bucket = ExaLogLog.create(2, 24, 12);
+      for (long hashValue : bucketHashValues) {
+        bucket.add(hashValue);
+      }
+      hashValues.add(bucketHashValues);
+      assertThat(index.append(bucket)).isSameAs(index);
+      assertThat(index.size()).isEqualTo(i + 1);
+    }
+    assertThat(index.getNumLevels()).isEqualTo(7);
+
+    for (int fromIdx = 0; fromIdx <= numBuckets; ++fromIdx) {
+      for (int toIdx = fromIdx; toIdx <= numBuckets; ++toIdx) {
+        ExaLogLog union = index.getUnion(fromIdx, toIdx);
+        ExaLogLog expected = ExaLogLog.create(2, union.getD(), union.getP());
+        for (int i = fromIdx; i < toIdx; ++i) {
+          for (long hashValue : hashValues.get(i)) {
+            expected.add(hashValue);
+          }
+        }
+        assertThat(union.getState()).isEqualTo(expected.getState());
+      }
+    }
+
+    assertThat(index.getUnion(5, 6).getP()).isEqualTo(10);
+    assertThat(index.getUnion(4, 8).getP()).isEqualTo(9);
+    assertThat(index.getUnion(0, 64).getP()).isEqualTo(8);
+    assertThat(index.getUnion(0, 64).getD()).isEqualTo(16);
+    assertThat(index.getDistinctCountEstimate(0, numBuckets))
+        .isEqualTo(index.getUnion(0, numBuckets).getDistinctCountEstimate());
+  }
+
+  @Test
+  void testEmpty() {
+    ExaLogLogRangeIndex index = ExaLogLogRangeIndex.create(1, new int[] {9}, new int[] {6});
+    assertThat(index.size()).isZero();
+    assertThat(index.getNumLevels()).isZero();
+    assertThat(index.getDistinctCountEstimate(0, 0)).isZero();
+    assertThatExceptionOfType(IndexOutOfBoundsException.class)
+        .isThrownBy(() -> index.getUnion(0, 1));
+  }
+
+  @Test
+  void testGetters() {
+    ExaLogLogRangeIndex index =
+        ExaLogLogRangeIndex.create(2, new int[] {20, 16}, new int[] {12, 10, 8});
+    assertThat(index.getT()).isEqualTo(2);
+    assertThat(index.getD(0)).isEqualTo(20);
+    assertThat(index.getD(1)).isEqualTo(16);
+    assertThat(index.getD(5)).isEqualTo(16);
+    assertThat(index.getP(0)).isEqualTo(12);
+    assertThat(index.getP(2)).isEqualTo(8);
+    assertThat(index.getP(5)).isEqualTo(8);
+  }
+
+  @Test
+  void testIllegalArguments() {
+    assertThatNullPointerException()
+        .isThrownBy(() -> ExaLogLogRangeIndex.create(2, null, new int[] {8}));
+    assertThatNullPointerException()
+        .isThrownBy(() -> ExaLogLogRangeIndex.create(2, new int[] {20}, null));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogRangeIndex.create(2, new int[] {}, new int[] {8}));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogRangeIndex.create(2, new int[] {20}, new int[] {}));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogRangeIndex.create(-1, new int[] {20}, new int[] {8}));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogRangeIndex.create(2, new int[] {60}, new int[] {8}));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogRangeIndex.create(2, new int[] {20}, new int[] {1}));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogRangeIndex.create(2, new int[] {16, 20}, new int[] {8}));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogRangeIndex.create(2, new int[] {20}, new int[] {8, 9}));
+
+    ExaLogLogRangeIndex index = ExaLogLogRangeIndex.create(2, new int[] {20}, new int[] {8});
+    assertThatNullPointerException().isThrownBy(() -> index.append(null));
+    assertThatIllegalArgumentException().isThrownBy(() -> index.append(ExaLogLog.create(1, 20, 8)));
+    assertThatIllegalArgumentException().isThrownBy(() -> index.append(ExaLogLog.create(2, 19, 8)));
+    assertThatIllegalArgumentException().isThrownBy(() -> index.append(ExaLogLog.create(2, 20, 7)));
+    index.append(ExaLogLog.create(2, 20, 8));
+    assertThatExceptionOfType(IndexOutOfBoundsException.class)
+        .isThrownBy(() -> index.getUnion(-1, 1));
+    assertThatExceptionOfType(IndexOutOfBoundsException.class)
+        .isThrownBy(() -> index.getUnion(1, 0));
+    assertThatExceptionOfType(IndexOutOfBoundsException.class)
+        .isThrownBy(() -> index.getUnion(0, 2));
+  }
+}
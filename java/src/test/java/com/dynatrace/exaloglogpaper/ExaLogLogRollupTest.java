@@ -0,0 +1,199 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.dynatrace.exaloglogpaper.ExaLogLogRollup.Tier;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class ExaLogLogRollupTest {
+
+  private static final int T = 2;
+
+  private static ExaLogLogRollup createRollup() {
+    return ExaLogLogRollup.create(
+        T,
+        Tier.create(10, 20, 10, 200),
+        Tier.create(100, 16, 8, 50),
+        Tier.create(1000, 12, 6, 10));
+  }
+
+  // adds 20 random elements per time unit to the rollup and returns their hash values
+  private static long[] addElements(
+      ExaLogLogRollup rollup, long fromTime, long toTime, SplittableRandom random) {
+    long[] hashValues = new long[(int) (20 * (toTime - fromTime))];
+    for (long time = fromTime; time < toTime; ++time) {
+      for (int i = 0; i < 20; ++i) {
+        long hashValue = random.nextLong();
+        hashValues[(int) (20 * (time - fromTime)) + i] = hashValue;
+        rollup.add(time, hashValue);
+      }
+    }
+    return hashValues;
+  }
+
+  private static ExaLogLog expectedUnion(
+      long[] hashValues, long firstTime, long fromTime, long toTime, int d, int p) {
+    ExaLogLog sketch = ExaLogLog.create(T, d, p);
+    for (long time = fromTime; time < toTime; ++time) {
+      for (int i = 0; i < 20; ++i) {
+        sketch.add(hashValues[(int) (20 * (time - firstTime)) + i]);
+      }
+    }
+    return sketch;
+  }
+
+  @Test
+  void testQueries() {
+    ExaLogLogRollup rollup = createRollup();
+    long[] hashValues = addElements(rollup, 0, 5000, new SplittableRandom(0x6d2e81b0c4f97a35L));
+    rollup.advanceWatermark(4995);
+    assertThat(rollup.getWatermark()).isEqualTo(4995);
+
+    // covered by coarsest tier
+    ExaLogLog union = rollup.getUnion(0, 4000);
+    assertThat(union.getP()).isEqualTo(6);
+    assertThat(union.getD()).isEqualTo(12);
+    assertThat(union.getState()).isEqualTo(expectedUnion(hashValues, 0, 0, 4000, 12, 6).getState());
+
+    // covered by middle tier and finest tier, range is extended to finest bucket boundaries
+    union = rollup.getUnion(3015, 4234);
+    assertThat(union.getP()).isEqualTo(8);
+    assertThat(union.getState())
+        .isEqualTo(expectedUnion(hashValues, 0, 3010, 4240, 16, 8).getState());
+
+    // finest tier only
+    union = rollup.getUnion(4003, 4007);
+    assertThat(union.getP()).isEqualTo(10);
+    assertThat(union.getState())
+        .isEqualTo(expectedUnion(hashValues, 0, 4000, 4010, 20, 10).getState());
+
+    // includes the open bucket [4990, 5000) and the open coarser buckets
+    union = rollup.getUnion(3000, 5000);
+    assertThat(union.getP()).isEqualTo(6);
+    assertThat(union.getState())
+        .isEqualTo(expectedUnion(hashValues, 0, 3000, 5000, 12, 6).getState());
+    assertThat(rollup.getDistinctCountEstimate(3000, 5000))
+        .isEqualTo(union.getDistinctCountEstimate());
+
+    // empty ranges
+    assertThat(rollup.getUnion(6000, 7000).getState())
+        .isEqualTo(ExaLogLog.create(T, 20, 10).getState());
+    assertThat(rollup.getDistinctCountEstimate(100, 100)).isZero();
+  }
+
+  @Test
+  void testRetention() {
+    ExaLogLogRollup rollup = createRollup();
+    long[] hashValues = addElements(rollup, 0, 20000, new SplittableRandom(0x0b57f3e98a2c1d64L));
+    rollup.advanceWatermark(20000);
+
+    // finest buckets before 18000 and middle buckets before 15000 have been dropped
+    ExaLogLog union = rollup.getUnion(14000, 20000);
+    assertThat(union.getP()).isEqualTo(6);
+    assertThat(union.getState())
+        .isEqualTo(expectedUnion(hashValues, 0, 14000, 20000, 12, 6).getState());
+    assertThat(rollup.getUnion(15100, 15200).getState())
+        .isEqualTo(expectedUnion(hashValues, 0, 15100, 15200, 16, 8).getState());
+    assertThat(rollup.getUnion(15110, 15120).getState())
+        .isEqualTo(ExaLogLog.create(T, 20, 10).getState());
+
+    // buckets older than the retention of the coarsest tier are gone
+    assertThat(rollup.getUnion(0, 10000).getState())
+        .isEqualTo(ExaLogLog.create(T, 20, 10).getState());
+  }
+
+  @Test
+  void testNegativeTimes() {
+    ExaLogLogRollup rollup = createRollup();
+    long[] hashValues =
+        addElements(rollup, -2500, 500, new SplittableRandom(0x49c6a0e2f813b75dL));
+    rollup.advanceWatermark(0);
+    assertThat(rollup.getUnion(-2000, -5).getState())
+        .isEqualTo(expectedUnion(hashValues, -2500, -2000, 0, 12, 6).getState());
+  }
+
+  @Test
+  void testGetters() {
+    ExaLogLogRollup rollup = createRollup();
+    assertThat(rollup.getT()).isEqualTo(T);
+    assertThat(rollup.getNumTiers()).isEqualTo(3);
+    assertThat(rollup.getWatermark()).isEqualTo(Long.MIN_VALUE);
+    Tier tier = rollup.getTier(1);
+    assertThat(tier.getBucketLength()).isEqualTo(100);
+    assertThat(tier.getD()).isEqualTo(16);
+    assertThat(tier.getP()).isEqualTo(8);
+    assertThat(tier.getNumRetainedBuckets()).isEqualTo(50);
+  }
+
+  @Test
+  void testIllegalArguments() {
+    assertThatIllegalArgumentException().isThrownBy(() -> Tier.create(0, 20, 10, 1));
+    assertThatIllegalArgumentException().isThrownBy(() -> Tier.create(10, 20, 10, 0));
+    assertThatNullPointerException().isThrownBy(() -> ExaLogLogRollup.create(T, (Tier[]) null));
+    assertThatNullPointerException()
+        .isThrownBy(() -> ExaLogLogRollup.create(T, Tier.create(10, 20, 10, 1), null));
+    assertThatIllegalArgumentException().isThrownBy(() -> ExaLogLogRollup.create(T));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogRollup.create(T, Tier.create(10, 60, 10, 1)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogRollup.create(T, Tier.create(10, 20, 1, 1)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(
+            () ->
+                ExaLogLogRollup.create(
+                    T, Tier.create(10, 20, 10, 10), Tier.create(15, 20, 10, 1)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(
+            () ->
+                ExaLogLogRollup.create(
+                    T, Tier.create(10, 20, 10, 10), Tier.create(10, 20, 10, 1)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(
+            () ->
+                ExaLogLogRollup.create(
+                    T, Tier.create(10, 20, 10, 10), Tier.create(100, 21, 10, 1)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(
+            () ->
+                ExaLogLogRollup.create(
+                    T, Tier.create(10, 20, 10, 10), Tier.create(100, 20, 11, 1)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(
+            () ->
+                ExaLogLogRollup.create(
+                    T, Tier.create(10, 20, 10, 9), Tier.create(100, 20, 10, 1)));
+
+    ExaLogLogRollup rollup = createRollup();
+    rollup.add(5, 0x1234L).advanceWatermark(20);
+    assertThatIllegalArgumentException().isThrownBy(() -> rollup.add(19, 0x1234L));
+    assertThatIllegalArgumentException().isThrownBy(() -> rollup.advanceWatermark(19));
+    rollup.add(20, 0x1234L);
+  }
+}
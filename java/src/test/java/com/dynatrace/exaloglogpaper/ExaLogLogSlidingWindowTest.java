@@ -0,0 +1,103 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class ExaLogLogSlidingWindowTest {
+
+  private static void testWindow(int numSlots, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    ExaLogLogSlidingWindow window = ExaLogLogSlidingWindow.create(2, 20, 6, numSlots);
+    ArrayDeque<List<Long>> slots = new ArrayDeque<>();
+    slots.addLast(new ArrayList<>());
+    for (int step = 0; step < 500; ++step) {
+      int numElements = random.nextInt(50);
+      for (int i = 0; i < numElements; ++i) {
+        long hashValue = random.nextLong();
+        slots.peekLast().add(hashValue);
+        if (random.nextBoolean()) {
+          assertThat(window.add(hashValue)).isSameAs(window);
+        } else {
+          assertThat(window.addToken(ExaLogLog.computeToken(hashValue))).isSameAs(window);
+        }
+      }
+
+      ExaLogLog expected = ExaLogLog.create(2, 20, 6);
+      for (List<Long> slot : slots) {
+        for (long hashValue : slot) {
+          expected.add(hashValue);
+        }
+      }
+      assertThat(window.getUnion().getState()).isEqualTo(expected.getState());
+      assertThat(window.getDistinctCountEstimate()).isEqualTo(expected.getDistinctCountEstimate());
+
+      assertThat(window.advance()).isSameAs(window);
+      slots.addLast(new ArrayList<>());
+      if (slots.size() > numSlots) {
+        slots.pollFirst();
+      }
+    }
+  }
+
+  @Test
+  void testWindow() {
+    testWindow(1, 0x5c27e0b94f18ad63L);
+    testWindow(2, 0xa31d6f08e5b27c94L);
+    testWindow(3, 0x0e94b7c3521fd86aL);
+    testWindow(15, 0x7b40d2a96ce3158fL);
+    testWindow(64, 0xd8f5139a2b67e04cL);
+  }
+
+  @Test
+  void testGetters() {
+    ExaLogLogSlidingWindow window = ExaLogLogSlidingWindow.create(1, 9, 8, 10);
+    assertThat(window.getT()).isEqualTo(1);
+    assertThat(window.getD()).isEqualTo(9);
+    assertThat(window.getP()).isEqualTo(8);
+    assertThat(window.getNumSlots()).isEqualTo(10);
+    assertThat(window.getDistinctCountEstimate()).isZero();
+  }
+
+  @Test
+  void testIllegalArguments() {
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogSlidingWindow.create(2, 20, 6, 0));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogSlidingWindow.create(-1, 20, 6, 10));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogSlidingWindow.create(2, 60, 6, 10));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLogSlidingWindow.create(2, 20, 1, 10));
+  }
+}
@@ -29,7 +29,11 @@ package com.dynatrace.exaloglogpaper;
 import static com.dynatrace.exaloglogpaper.ExaLogLog.*;
 import static org.assertj.core.api.Assertions.*;
 
+import com.dynatrace.hash4j.util.PackedArray;
+import com.dynatrace.hash4j.util.PackedArray.PackedArrayHandler;
+import java.util.Arrays;
 import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 
@@ -146,6 +150,201 @@ class ExaLogLogTest {
     }
   }
 
+  @Test
+  void testCopyInto() {
+    SplittableRandom random = new SplittableRandom(0x2c9e7a04b1f5d368L);
+    ExaLogLog sketch = ExaLogLog.create(2, 20, 6);
+    for (int i = 0; i < 1000; ++i) {
+      sketch.add(random.nextLong());
+    }
+    ExaLogLog target = ExaLogLog.create(2, 20, 6).add(random.nextLong());
+    assertThat(sketch.copyInto(target)).isSameAs(target);
+    assertThat(target.getState()).isEqualTo(sketch.getState());
+    assertThat(sketch.copyInto(sketch).getState()).isEqualTo(target.getState());
+
+    assertThatNullPointerException().isThrownBy(() -> sketch.copyInto(null));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> sketch.copyInto(ExaLogLog.create(1, 20, 6)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> sketch.copyInto(ExaLogLog.create(2, 19, 6)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> sketch.copyInto(ExaLogLog.create(2, 20, 5)));
+  }
+
+  @Test
+  void testDownsizeIntoAndMergeInto() {
+    SplittableRandom random = new SplittableRandom(0x93f1d6028a7ce45bL);
+    for (int i = 0; i < 100; ++i) {
+      int t = random.nextInt(5);
+      int p1 = getMinP() + random.nextInt(6);
+      int p2 = getMinP() + random.nextInt(6);
+      int d1 = random.nextInt(10);
+      int d2 = random.nextInt(10);
+
+      ExaLogLog sketch1 = ExaLogLog.create(t, d1, p1);
+      ExaLogLog sketch2 = ExaLogLog.create(t, d2, p2);
+      long distinctCount = random.nextLong(1000);
+      for (long l = 0; l < distinctCount; ++l) {
+        sketch1.add(random.nextLong());
+        sketch2.add(random.nextLong());
+      }
+
+      int minP = Math.min(p1, p2);
+      int minD = Math.min(d1, d2);
+
+      // target with previous state that must be overwritten
+      ExaLogLog target = ExaLogLog.create(t, minD, minP).add(random.nextLong());
+      assertThat(sketch1.downsizeInto(target)).isSameAs(target);
+      assertThat(target.getState()).isEqualTo(sketch1.downsize(minD, minP).getState());
+
+      ExaLogLog expectedMerged = ExaLogLog.merge(sketch1, sketch2);
+      target.add(random.nextLong());
+      assertThat(ExaLogLog.mergeInto(target, sketch1, sketch2)).isSameAs(target);
+      assertThat(target.getState()).isEqualTo(expectedMerged.getState());
+
+      // aliasing of target and one of the merged sketches
+      if (p1 <= p2 && d1 <= d2) {
+        ExaLogLog copy1 = sketch1.copy();
+        assertThat(ExaLogLog.mergeInto(copy1, copy1, sketch2).getState())
+            .isEqualTo(expectedMerged.getState());
+        ExaLogLog copy2 = sketch1.copy();
+        assertThat(ExaLogLog.mergeInto(copy2, sketch2, copy2).getState())
+            .isEqualTo(expectedMerged.getState());
+      }
+    }
+  }
+
+  @Test
+  void testDownsizeIntoAndMergeIntoIllegalArguments() {
+    ExaLogLog sketch = ExaLogLog.create(2, 20, 6);
+    assertThat(sketch.downsizeInto(sketch)).isSameAs(sketch);
+    assertThatNullPointerException().isThrownBy(() -> sketch.downsizeInto(null));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> sketch.downsizeInto(ExaLogLog.create(1, 20, 6)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> sketch.downsizeInto(ExaLogLog.create(2, 21, 6)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> sketch.downsizeInto(ExaLogLog.create(2, 20, 7)));
+    assertThatNullPointerException()
+        .isThrownBy(() -> ExaLogLog.mergeInto(null, sketch, sketch));
+    assertThatNullPointerException()
+        .isThrownBy(() -> ExaLogLog.mergeInto(sketch, null, sketch));
+    assertThatNullPointerException()
+        .isThrownBy(() -> ExaLogLog.mergeInto(sketch, sketch, null));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLog.mergeInto(sketch, sketch, ExaLogLog.create(2, 20, 5)));
+  }
+
+  private static long downsizeRegisterReference(
+      long r, int t, int fromD, int toD, int fromP, int toP, int subIdx) {
+    long u = r >>> fromD;
+    r >>>= fromD - toD;
+    if (u >= ((64L - t - fromP) << t) + 1) {
+      long shift = ((fromP - toP) - (32 - Integer.numberOfLeadingZeros(subIdx))) << t;
+      if (shift > 0) {
+        long numBitsToShift = toD + ((64L - t - fromP) << t) + 1 - u;
+        if (numBitsToShift > 0) {
+          long mask = 0xFFFFFFFFFFFFFFFFL << numBitsToShift;
+          r = (mask & r) | ((shift < 64) ? (r & ~mask) >>> shift : 0);
+        }
+        r += shift << toD;
+      }
+    }
+    return r;
+  }
+
+  private static ExaLogLog downsizeReference(ExaLogLog sketch, int toD, int toP) {
+    int t = sketch.getT();
+    int fromD = sketch.getD();
+    int fromP = sketch.getP();
+    PackedArrayHandler fromHandler = PackedArray.getHandler(getRegisterBitSize(t, fromD));
+    ExaLogLog result = ExaLogLog.create(t, toD, toP);
+    PackedArrayHandler toHandler = PackedArray.getHandler(getRegisterBitSize(t, toD));
+    for (int registerIndex = 0; registerIndex < (1 << toP); ++registerIndex) {
+      long mergedR = 0;
+      for (int subIdx = 0; subIdx < (1 << (fromP - toP)); ++subIdx) {
+        long r = fromHandler.get(sketch.getState(), registerIndex + (subIdx << toP));
+        mergedR =
+            mergeRegister(
+                mergedR, downsizeRegisterReference(r, t, fromD, toD, fromP, toP, subIdx), toD);
+      }
+      toHandler.set(result.getState(), registerIndex, mergedR);
+    }
+    return result;
+  }
+
+  @Test
+  void testDownsizeAgainstReference() {
+    SplittableRandom random = new SplittableRandom(0x5e0b9d27c3a41f86L);
+    for (int i = 0; i < 200; ++i) {
+      int t = random.nextInt(5);
+      int fromP = getMinP() + random.nextInt(10);
+      int toP = getMinP() + random.nextInt(fromP - getMinP() + 1);
+      int fromD = random.nextInt(getMaxD(t) + 1);
+      int toD = random.nextInt(fromD + 1);
+      ExaLogLog sketch = ExaLogLog.create(t, fromD, fromP);
+      long distinctCount = 1L << random.nextInt(20);
+      for (long l = 0; l < distinctCount; ++l) {
+        sketch.add(random.nextLong());
+      }
+      assertThat(sketch.downsize(toD, toP).getState())
+          .isEqualTo(downsizeReference(sketch, toD, toP).getState());
+    }
+  }
+
+  @Test
+  void testAddWithMartingaleEstimator() {
+    SplittableRandom random = new SplittableRandom(0x1d4b7f29e8c0a563L);
+    for (int i = 0; i < 100; ++i) {
+      int t = random.nextInt(3);
+      int p = getMinP() + random.nextInt(8);
+      int d1 = random.nextInt(getMaxD(t) + 1);
+      int d2 = d1 + random.nextInt(getMaxD(t) - d1 + 1);
+      ExaLogLog sketch1 = ExaLogLog.create(t, d1, p);
+      ExaLogLog sketch2 = ExaLogLog.create(t, d2, p + random.nextInt(3));
+      long distinctCount = random.nextLong(2000);
+      for (long l = 0; l < distinctCount; ++l) {
+        sketch1.add(random.nextLong());
+        sketch2.add(random.nextLong());
+      }
+      ExaLogLog expected = sketch1.copy().add(sketch2);
+      MartingaleEstimator martingaleEstimator = new MartingaleEstimator(123., 0.5);
+      assertThat(sketch1.add(sketch2, martingaleEstimator)).isSameAs(sketch1);
+      assertThat(sketch1.getState()).isEqualTo(expected.getState());
+      assertThat(martingaleEstimator.getDistinctCountEstimate())
+          .isEqualTo(expected.getDistinctCountEstimate());
+      assertThat(martingaleEstimator.getStateChangeProbability())
+          .isEqualTo(expected.getStateChangeProbability());
+    }
+  }
+
+  @Test
+  void testAddWithMartingaleEstimatorEdgeCases() {
+    MartingaleEstimator martingaleEstimator = new MartingaleEstimator(123., 0.5);
+    ExaLogLog empty = ExaLogLog.create(2, 20, 4);
+    empty.add(ExaLogLog.create(2, 20, 4), martingaleEstimator);
+    assertThat(martingaleEstimator.getDistinctCountEstimate()).isZero();
+    assertThat(martingaleEstimator.getStateChangeProbability()).isOne();
+
+    // all registers saturated
+    ExaLogLog saturated = ExaLogLog.create(0, 0, 4);
+    for (long idx = 0; idx < 16; ++idx) {
+      saturated.add(idx);
+    }
+    ExaLogLog target = ExaLogLog.create(0, 0, 4);
+    target.add(saturated, martingaleEstimator);
+    assertThat(target.getStateChangeProbability()).isZero();
+    assertThat(martingaleEstimator.getStateChangeProbability()).isZero();
+    assertThat(martingaleEstimator.getDistinctCountEstimate()).isInfinite();
+
+    assertThatNullPointerException()
+        .isThrownBy(() -> empty.add(empty, (MartingaleEstimator) null));
+    assertThatNullPointerException()
+        .isThrownBy(() -> empty.add((ExaLogLog) null, new MartingaleEstimator()));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> empty.add(ExaLogLog.create(2, 20, 3), new MartingaleEstimator()));
+  }
+
   @Test
   void testMergeWithDifferentT() {
     ExaLogLog ell1 = ExaLogLog.create(2, 2, 2);
@@ -153,6 +352,342 @@ class ExaLogLogTest {
     assertThatIllegalArgumentException().isThrownBy(() -> ExaLogLog.merge(ell1, ell2));
   }
 
+  @Test
+  void testParallelMergeAndDownsize() {
+    SplittableRandom random = new SplittableRandom(0x8e13c5f0a72d946bL);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int t : new int[] {1, 2}) {
+        int d = (t == 1) ? 9 : 20;
+        for (int p : new int[] {4, 16, 18}) {
+          ExaLogLog sketch1 = ExaLogLog.create(t, d, p);
+          ExaLogLog sketch2 = ExaLogLog.create(t, d, p);
+          ExaLogLog sketch3 = ExaLogLog.create(t, d, p + 1);
+          for (int i = 0; i < 300000; ++i) {
+            sketch1.add(random.nextLong());
+            sketch2.add(random.nextLong());
+            sketch3.add(random.nextLong());
+          }
+
+          ExaLogLog expected = sketch1.copy().add(sketch2).add(sketch3);
+          ExaLogLog actual = sketch1.copy();
+          assertThat(actual.add(sketch2, pool)).isSameAs(actual);
+          assertThat(actual.add(sketch3, pool)).isSameAs(actual);
+          assertThat(actual.getState()).isEqualTo(expected.getState());
+
+          assertThat(sketch3.downsize(d - 3, p, pool).getState())
+              .isEqualTo(sketch3.downsize(d - 3, p).getState());
+          assertThat(sketch3.downsize(d, p - 2, pool).getState())
+              .isEqualTo(sketch3.downsize(d, p - 2).getState());
+          assertThat(sketch3.downsize(d, p + 1, pool).getState()).isEqualTo(sketch3.getState());
+        }
+      }
+      ExaLogLog sketch = ExaLogLog.create(2, 20, 8);
+      assertThatNullPointerException().isThrownBy(() -> sketch.add(sketch, (ForkJoinPool) null));
+      assertThatNullPointerException().isThrownBy(() -> sketch.add(null, pool));
+      assertThatNullPointerException().isThrownBy(() -> sketch.downsize(20, 8, null));
+      assertThatIllegalArgumentException()
+          .isThrownBy(() -> sketch.add(ExaLogLog.create(2, 20, 7), pool));
+      assertThatIllegalArgumentException().isThrownBy(() -> sketch.downsize(20, 1, pool));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static void assertStateChangeProbabilityConsistent(ExaLogLog sketch) {
+    // wrap() computes the state change probability from all registers, peekState() does not
+    // invalidate the maintained state change probability of the given sketch
+    ExaLogLog scanned = ExaLogLog.wrap(sketch.getT(), sketch.getD(), sketch.peekState().clone());
+    assertThat(sketch.getStateChangeProbability())
+        .isEqualTo(scanned.getStateChangeProbability());
+  }
+
+  @Test
+  void testIncrementalStateChangeProbability() {
+    SplittableRandom random = new SplittableRandom(0x3b5e0a9d71c4f286L);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int t = 0; t <= 2; ++t) {
+        for (int d : new int[] {0, 1, 2 * t + 3}) {
+          for (int p : new int[] {2, 6, 17}) {
+            ExaLogLog sketch1 = ExaLogLog.create(t, d, p);
+            ExaLogLog sketch2 = ExaLogLog.create(t, d, p + 1);
+            assertThat(sketch1.getStateChangeProbability()).isOne();
+            for (int i = 0; i < 5000; ++i) {
+              sketch1.add(random.nextLong());
+              sketch2.add(random.nextLong());
+              if (i % 1000 == 0) {
+                assertStateChangeProbabilityConsistent(sketch1);
+              }
+            }
+            assertStateChangeProbabilityConsistent(sketch1);
+            assertStateChangeProbabilityConsistent(sketch2);
+            assertStateChangeProbabilityConsistent(sketch1.copy().add(sketch2));
+            assertStateChangeProbabilityConsistent(sketch1.copy().add(sketch2, pool));
+            assertStateChangeProbabilityConsistent(sketch1.copy().add(sketch1.copy()));
+            assertStateChangeProbabilityConsistent(sketch2.downsize(d, p));
+            assertStateChangeProbabilityConsistent(sketch2.copyInto(ExaLogLog.create(t, d, p + 1)));
+            assertThat(sketch1.reset().getStateChangeProbability()).isOne();
+          }
+        }
+      }
+
+      ExaLogLog saturated = ExaLogLog.create(0, 0, 4);
+      for (long hash = 0; hash < 16; ++hash) {
+        saturated.add(hash);
+      }
+      assertThat(saturated.getStateChangeProbability()).isZero();
+      assertThat(ExaLogLog.create(0, 0, 4).add(saturated).getStateChangeProbability()).isZero();
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void testStateChangeProbabilityAfterDirectStateModification() {
+    SplittableRandom random = new SplittableRandom(0x72d4e19b0c5a3f68L);
+    for (int t = 0; t <= 2; ++t) {
+      for (int d : new int[] {0, 1, 2 * t + 3}) {
+        PackedArrayHandler handler = PackedArray.getHandler(getRegisterBitSize(t, d));
+        for (int p : new int[] {2, 6, 12}) {
+          int m = 1 << p;
+          ExaLogLog sketch = ExaLogLog.create(t, d, p);
+          for (int i = 0; i < 3000; ++i) {
+            sketch.add(random.nextLong());
+          }
+          assertStateChangeProbabilityConsistent(sketch);
+
+          // reset some registers directly, like done by the register-specific tests
+          for (int i = 0; i < m; i += 3) {
+            handler.set(sketch.getState(), i, 0L);
+          }
+          assertStateChangeProbabilityConsistent(sketch);
+          assertThat(sketch.getDistinctCountEstimate(ExaLogLog.CLOSED_FORM_ESTIMATOR))
+              .isEqualTo(
+                  ExaLogLog.wrap(t, d, sketch.peekState().clone())
+                      .getDistinctCountEstimate(ExaLogLog.CLOSED_FORM_ESTIMATOR));
+
+          // incremental updates must build on the recomputed value
+          for (int i = 0; i < 1000; ++i) {
+            sketch.add(random.nextLong());
+          }
+          assertStateChangeProbabilityConsistent(sketch);
+
+          // modifications without an intermediate access of the state change probability
+          byte[] state = sketch.getState();
+          for (int i = 0; i < m; i += 2) {
+            handler.set(state, i, 0L);
+          }
+          sketch.add(random.nextLong());
+          Arrays.fill(sketch.getState(), (byte) 0);
+          assertThat(sketch.getStateChangeProbability()).isOne();
+          for (int i = 0; i < 1000; ++i) {
+            sketch.add(random.nextLong());
+          }
+          assertStateChangeProbabilityConsistent(sketch);
+
+          // wrapped states and their copies
+          ExaLogLog wrapped = ExaLogLog.wrap(t, d, sketch.copy().getState());
+          assertStateChangeProbabilityConsistent(wrapped.copy());
+          assertStateChangeProbabilityConsistent(wrapped.copyInto(ExaLogLog.create(t, d, p)));
+          for (int i = 0; i < 1000; ++i) {
+            wrapped.add(random.nextLong());
+          }
+          assertStateChangeProbabilityConsistent(wrapped);
+
+          // the martingale merge scans all registers and also sees writes to a wrapped array
+          // made without calling getState()
+          byte[] wrappedState = wrapped.copy().getState();
+          ExaLogLog other = wrapped.copy();
+          wrapped = ExaLogLog.wrap(t, d, wrappedState);
+          assertStateChangeProbabilityConsistent(wrapped);
+          Arrays.fill(wrappedState, (byte) 0);
+          MartingaleEstimator martingaleEstimator = new MartingaleEstimator();
+          wrapped.add(other, martingaleEstimator);
+          assertStateChangeProbabilityConsistent(wrapped);
+          assertThat(martingaleEstimator.getDistinctCountEstimate())
+              .isEqualTo(other.getDistinctCountEstimate());
+          assertThat(martingaleEstimator.getStateChangeProbability())
+              .isEqualTo(other.getStateChangeProbability());
+          assertThat(wrapped.reset().getStateChangeProbability()).isOne();
+        }
+      }
+    }
+  }
+
+  @Test
+  void testParallelDistinctCountEstimate() {
+    SplittableRandom random = new SplittableRandom(0x4d0f8e2a93b6c175L);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int t : new int[] {1, 2}) {
+        int d = (t == 1) ? 9 : 20;
+        for (int p : new int[] {4, 16, 17, 18}) {
+          for (long distinctCount : new long[] {0, 1, 1000, 1000000}) {
+            ExaLogLog sketch = ExaLogLog.create(t, d, p);
+            for (long l = 0; l < distinctCount; ++l) {
+              sketch.add(random.nextLong());
+            }
+            assertThat(sketch.getDistinctCountEstimate(pool))
+                .isEqualTo(sketch.getDistinctCountEstimate());
+          }
+        }
+      }
+      ExaLogLog sketch = ExaLogLog.create(0, 0, 17);
+      Arrays.fill(sketch.getState(), (byte) 0xFF);
+      assertThat(sketch.getDistinctCountEstimate(pool))
+          .isEqualTo(sketch.getDistinctCountEstimate());
+      assertThatNullPointerException()
+          .isThrownBy(() -> sketch.getDistinctCountEstimate((ForkJoinPool) null));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void testComputeSortedDistinctTokens() {
+    SplittableRandom random = new SplittableRandom(0x7a4c19e5b3d2f860L);
+    int[] tokens = new int[0];
+    int[] buffer = new int[0];
+    for (int numHashValues : new int[] {0, 1, 2, 10, 1000, 100000}) {
+      // every hash value occurs twice on average
+      long[] distinctHashValues = random.longs(Math.max(1, numHashValues / 2)).toArray();
+      long[] hashValues = new long[numHashValues + 2];
+      for (int i = 0; i < hashValues.length; ++i) {
+        hashValues[i] = distinctHashValues[random.nextInt(distinctHashValues.length)];
+      }
+      int fromIdx = 1;
+      int toIdx = numHashValues + 1;
+      if (tokens.length < numHashValues) {
+        tokens = new int[numHashValues];
+        buffer = new int[numHashValues];
+      }
+      int numDistinctTokens =
+          ExaLogLog.computeSortedDistinctTokens(hashValues, fromIdx, toIdx, tokens, buffer);
+
+      long[] expectedTokens =
+          Arrays.stream(hashValues, fromIdx, toIdx)
+              .map(h -> ExaLogLog.computeToken(h) & 0xFFFFFFFFL)
+              .sorted()
+              .distinct()
+              .toArray();
+      long[] actualTokens =
+          Arrays.stream(tokens, 0, numDistinctTokens).mapToLong(x -> x & 0xFFFFFFFFL).toArray();
+      assertThat(actualTokens).isEqualTo(expectedTokens);
+
+      ExaLogLog expectedSketch = ExaLogLog.create(2, 20, 10);
+      for (int i = fromIdx; i < toIdx; ++i) {
+        expectedSketch.add(hashValues[i]);
+      }
+      ExaLogLog sketch = ExaLogLog.create(2, 20, 10).addTokens(tokens, 0, numDistinctTokens);
+      assertThat(sketch.getState()).isEqualTo(expectedSketch.getState());
+      assertThat(sketch.getStateChangeProbability())
+          .isEqualTo(expectedSketch.getStateChangeProbability());
+    }
+  }
+
+  @Test
+  void testComputeSortedDistinctTokensIllegalArguments() {
+    long[] hashValues = new long[10];
+    int[] tokens = new int[10];
+    int[] buffer = new int[10];
+    assertThatNullPointerException()
+        .isThrownBy(() -> ExaLogLog.computeSortedDistinctTokens(null, 0, 10, tokens, buffer));
+    assertThatNullPointerException()
+        .isThrownBy(() -> ExaLogLog.computeSortedDistinctTokens(hashValues, 0, 10, null, buffer));
+    assertThatNullPointerException()
+        .isThrownBy(() -> ExaLogLog.computeSortedDistinctTokens(hashValues, 0, 10, tokens, null));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLog.computeSortedDistinctTokens(hashValues, -1, 5, tokens, buffer));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLog.computeSortedDistinctTokens(hashValues, 6, 5, tokens, buffer));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ExaLogLog.computeSortedDistinctTokens(hashValues, 0, 11, tokens, buffer));
+    assertThatIllegalArgumentException()
+        .isThrownBy(
+            () -> ExaLogLog.computeSortedDistinctTokens(hashValues, 0, 10, new int[9], buffer));
+    assertThatIllegalArgumentException()
+        .isThrownBy(
+            () -> ExaLogLog.computeSortedDistinctTokens(hashValues, 0, 10, tokens, new int[9]));
+  }
+
+  @Test
+  void testDistinctCountEstimateWithEstimator() {
+    SplittableRandom random = new SplittableRandom(0x1d7a3e95c60b82f4L);
+    ExaLogLog sketch = ExaLogLog.create(2, 20, 8);
+    for (int i = 0; i < 10000; ++i) {
+      sketch.add(random.nextLong());
+      if (i % 1000 == 0) {
+        assertThat(sketch.getDistinctCountEstimate(MAXIMUM_LIKELIHOOD_ESTIMATOR))
+            .isEqualTo(sketch.getDistinctCountEstimate());
+      }
+    }
+    assertThat(sketch.getDistinctCountEstimate(s -> 42.)).isEqualTo(42.);
+    assertThatNullPointerException()
+        .isThrownBy(() -> sketch.getDistinctCountEstimate((Estimator) null));
+  }
+
+  @Test
+  void testFastDistinctCountEstimate() {
+    SplittableRandom random = new SplittableRandom(0x62e9b0d4c7a1f358L);
+    for (int t : new int[] {0, 1, 2}) {
+      int d = new int[] {2, 9, 20}[t];
+      for (int p : new int[] {4, 8, 12}) {
+        ExaLogLog sketch = ExaLogLog.create(t, d, p);
+        long numAdded = 0;
+        for (long distinctCount = 1; distinctCount <= 10000000; distinctCount *= 4) {
+          for (; numAdded < distinctCount; ++numAdded) {
+            sketch.add(random.nextLong());
+          }
+          double exact = sketch.getDistinctCountEstimate();
+          assertThat(sketch.getDistinctCountEstimate(0., Integer.MAX_VALUE)).isEqualTo(exact);
+          assertThat(sketch.getDistinctCountEstimate(1e-3, Integer.MAX_VALUE))
+              .isLessThanOrEqualTo(exact)
+              .isCloseTo(exact, withPercentage(0.1));
+          double previous = 0;
+          for (int maxIterations = 0; maxIterations <= 10; ++maxIterations) {
+            DistinctCountUtil.SolverStatistics solverStatistics =
+                new DistinctCountUtil.SolverStatistics();
+            double estimate = sketch.getDistinctCountEstimate(0., maxIterations, solverStatistics);
+            assertThat(solverStatistics.iterationCounter).isLessThanOrEqualTo(maxIterations);
+            assertThat(estimate).isBetween(previous, exact);
+            previous = estimate;
+          }
+        }
+      }
+    }
+    ExaLogLog sketch = ExaLogLog.create(2, 20, 8);
+    assertThatIllegalArgumentException().isThrownBy(() -> sketch.getDistinctCountEstimate(-1., 5));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> sketch.getDistinctCountEstimate(Double.NaN, 5));
+    assertThatIllegalArgumentException().isThrownBy(() -> sketch.getDistinctCountEstimate(0., -1));
+  }
+
+  @Test
+  void testMaximumLikelihoodSolverIterations() {
+    // for large distinct counts, starting the Newton iteration from the lower bound would take more
+    // than 5 iterations on average
+    SplittableRandom random = new SplittableRandom(0x3f0b5c8e91d2a647L);
+    for (int t : new int[] {0, 1, 2}) {
+      int d = new int[] {2, 9, 20}[t];
+      for (int p : new int[] {8, 12}) {
+        ExaLogLog sketch = ExaLogLog.create(t, d, p);
+        DistinctCountUtil.SolverStatistics solverStatistics =
+            new DistinctCountUtil.SolverStatistics();
+        int numEstimates = 0;
+        long numAdded = 0;
+        for (long distinctCount = 1 << 20; distinctCount <= 1 << 22; distinctCount += 1 << 16) {
+          for (; numAdded < distinctCount; ++numAdded) {
+            sketch.add(random.nextLong());
+          }
+          sketch.getDistinctCountEstimate(solverStatistics);
+          numEstimates += 1;
+        }
+        assertThat(solverStatistics.iterationCounter).isLessThanOrEqualTo(5L * numEstimates);
+      }
+    }
+  }
+
   private static int phi(long k, int p, int t) {
     if (k == 0) return t;
     return (int) Math.min((t + 1 + ((k - 1) >>> t)), 64 - p);
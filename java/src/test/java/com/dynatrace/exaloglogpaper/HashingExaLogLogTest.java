@@ -0,0 +1,123 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.dynatrace.hash4j.hashing.Hasher64;
+import com.dynatrace.hash4j.hashing.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class HashingExaLogLogTest {
+
+  private static final Hasher64 HASHER = Hashing.komihash5_0();
+
+  @Test
+  void testAddSingleElements() {
+    SplittableRandom random = new SplittableRandom(0x2f7a91c4e06b3d58L);
+    HashingExaLogLog hashingSketch = HashingExaLogLog.create(2, 20, 8, HASHER);
+    ExaLogLog expected = ExaLogLog.create(2, 20, 8);
+    for (int i = 0; i < 10000; ++i) {
+      long l = random.nextLong();
+      String s = Long.toHexString(l);
+      byte[] b = s.getBytes(StandardCharsets.UTF_8);
+      UUID uuid = new UUID(random.nextLong(), random.nextLong());
+      assertThat(hashingSketch.addChars(s)).isSameAs(hashingSketch);
+      assertThat(hashingSketch.addBytes(b)).isSameAs(hashingSketch);
+      assertThat(hashingSketch.addBytes(b, 1, b.length - 2)).isSameAs(hashingSketch);
+      assertThat(hashingSketch.addLong(l)).isSameAs(hashingSketch);
+      assertThat(hashingSketch.addUuid(uuid)).isSameAs(hashingSketch);
+      expected.add(HASHER.hashCharsToLong(s));
+      expected.add(HASHER.hashBytesToLong(b));
+      expected.add(HASHER.hashBytesToLong(b, 1, b.length - 2));
+      expected.add(HASHER.hashLongToLong(l));
+      expected.add(
+          HASHER.hashLongLongToLong(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+    }
+    assertThat(hashingSketch.getSketch().getState()).isEqualTo(expected.getState());
+    assertThat(hashingSketch.getDistinctCountEstimate())
+        .isEqualTo(expected.getDistinctCountEstimate());
+  }
+
+  @Test
+  void testAddBatches() {
+    SplittableRandom random = new SplittableRandom(0x93c05e18a2d47f6bL);
+    int numElements = 10000;
+    long[] longs = random.longs(numElements).toArray();
+    List<String> strings = new ArrayList<>();
+    List<byte[]> byteArrays = new ArrayList<>();
+    List<UUID> uuids = new ArrayList<>();
+    for (long l : longs) {
+      strings.add(Long.toString(l));
+      byteArrays.add(Long.toHexString(l).getBytes(StandardCharsets.UTF_8));
+      uuids.add(new UUID(l, random.nextLong()));
+    }
+
+    HashingExaLogLog expected = HashingExaLogLog.create(1, 9, 10, HASHER);
+    for (int i = 0; i < numElements; ++i) {
+      expected.addChars(strings.get(i));
+      expected.addBytes(byteArrays.get(i));
+      expected.addUuid(uuids.get(i));
+      if (i >= 100 && i < 200) {
+        expected.addLong(longs[i]);
+      }
+    }
+
+    HashingExaLogLog hashingSketch = HashingExaLogLog.create(1, 9, 10, HASHER);
+    assertThat(hashingSketch.addAllChars(strings)).isSameAs(hashingSketch);
+    assertThat(hashingSketch.addAllBytes(byteArrays)).isSameAs(hashingSketch);
+    assertThat(hashingSketch.addAllUuids(uuids)).isSameAs(hashingSketch);
+    assertThat(hashingSketch.addLongs(longs, 100, 200)).isSameAs(hashingSketch);
+    assertThat(hashingSketch.getSketch().getState())
+        .isEqualTo(expected.getSketch().getState());
+  }
+
+  @Test
+  void testWrap() {
+    ExaLogLog sketch = ExaLogLog.create(2, 20, 4);
+    HashingExaLogLog hashingSketch = HashingExaLogLog.wrap(sketch, HASHER);
+    assertThat(hashingSketch.getSketch()).isSameAs(sketch);
+    assertThat(hashingSketch.getHasher()).isSameAs(HASHER);
+    hashingSketch.addLong(42);
+    assertThat(sketch.getDistinctCountEstimate()).isGreaterThan(0);
+  }
+
+  @Test
+  void testIllegalArguments() {
+    assertThatNullPointerException().isThrownBy(() -> HashingExaLogLog.create(2, 20, 8, null));
+    assertThatNullPointerException().isThrownBy(() -> HashingExaLogLog.wrap(null, HASHER));
+    assertThatNullPointerException()
+        .isThrownBy(() -> HashingExaLogLog.wrap(ExaLogLog.create(2, 20, 8), null));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> HashingExaLogLog.create(2, 20, 1, HASHER));
+  }
+}
@@ -0,0 +1,130 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class MartingaleExaLogLogTest {
+
+  @Test
+  void testAdd() {
+    SplittableRandom random = new SplittableRandom(0x84a0d3c5b27e196fL);
+    MartingaleExaLogLog sketch = MartingaleExaLogLog.create(2, 20, 8);
+    ExaLogLog expectedSketch = ExaLogLog.create(2, 20, 8);
+    MartingaleEstimator expectedEstimator = new MartingaleEstimator();
+    for (int i = 0; i < 10000; ++i) {
+      long hashValue = random.nextLong();
+      if (random.nextBoolean()) {
+        assertThat(sketch.add(hashValue)).isSameAs(sketch);
+      } else {
+        assertThat(sketch.addToken(ExaLogLog.computeToken(hashValue))).isSameAs(sketch);
+      }
+      expectedSketch.add(hashValue, expectedEstimator);
+    }
+    assertThat(sketch.getSketch().getState()).isEqualTo(expectedSketch.getState());
+    assertThat(sketch.getDistinctCountEstimate())
+        .isEqualTo(expectedEstimator.getDistinctCountEstimate());
+    assertThat(sketch.getStateChangeProbability())
+        .isEqualTo(expectedEstimator.getStateChangeProbability());
+  }
+
+  @Test
+  void testSerializationRoundTrip() {
+    SplittableRandom random = new SplittableRandom(0x2e6c91f0a5b348d7L);
+    for (int t = 0; t <= 2; ++t) {
+      for (int p = ExaLogLog.getMinP(); p <= 10; ++p) {
+        int d = random.nextInt(ExaLogLog.getMaxD(t) + 1);
+        MartingaleExaLogLog sketch = MartingaleExaLogLog.create(t, d, p);
+        long numElements = random.nextLong(5000);
+        for (long i = 0; i < numElements; ++i) {
+          sketch.add(random.nextLong());
+        }
+        byte[] bytes = sketch.toByteArray();
+        MartingaleExaLogLog restored = MartingaleExaLogLog.fromByteArray(bytes);
+        assertThat(restored.getSketch().getT()).isEqualTo(t);
+        assertThat(restored.getSketch().getD()).isEqualTo(d);
+        assertThat(restored.getSketch().getP()).isEqualTo(p);
+        assertThat(restored.getSketch().getState()).isEqualTo(sketch.getSketch().getState());
+        assertThat(restored.getDistinctCountEstimate())
+            .isEqualTo(sketch.getDistinctCountEstimate());
+        assertThat(restored.getStateChangeProbability())
+            .isEqualTo(sketch.getStateChangeProbability());
+
+        // restored instance does not share memory and resumes estimation identically
+        Arrays.fill(bytes, (byte) 0);
+        for (int i = 0; i < 1000; ++i) {
+          long hashValue = random.nextLong();
+          sketch.add(hashValue);
+          restored.add(hashValue);
+        }
+        assertThat(restored.getSketch().getState()).isEqualTo(sketch.getSketch().getState());
+        assertThat(restored.getDistinctCountEstimate())
+            .isEqualTo(sketch.getDistinctCountEstimate());
+      }
+    }
+  }
+
+  @Test
+  void testInvalidSerializedForms() {
+    byte[] valid = MartingaleExaLogLog.create(2, 20, 4).add(0x1234L).toByteArray();
+    assertThatNullPointerException().isThrownBy(() -> MartingaleExaLogLog.fromByteArray(null));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> MartingaleExaLogLog.fromByteArray(Arrays.copyOf(valid, 19)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(
+            () -> MartingaleExaLogLog.fromByteArray(Arrays.copyOf(valid, valid.length - 1)));
+
+    byte[] invalidVersion = valid.clone();
+    invalidVersion[0] = 1;
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> MartingaleExaLogLog.fromByteArray(invalidVersion));
+
+    byte[] invalidT = valid.clone();
+    invalidT[1] = -1;
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> MartingaleExaLogLog.fromByteArray(invalidT));
+
+    byte[] invalidD = valid.clone();
+    invalidD[2] = 60;
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> MartingaleExaLogLog.fromByteArray(invalidD));
+
+    byte[] invalidP = valid.clone();
+    invalidP[3] = 5;
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> MartingaleExaLogLog.fromByteArray(invalidP));
+
+    byte[] invalidProbability = valid.clone();
+    invalidProbability[19] = 0x7f; // exponent of state change probability
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> MartingaleExaLogLog.fromByteArray(invalidProbability));
+  }
+}
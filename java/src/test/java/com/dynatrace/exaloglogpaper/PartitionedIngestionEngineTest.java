@@ -0,0 +1,183 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class PartitionedIngestionEngineTest {
+
+  private static void testIngestion(
+      int t, int d, int p, int numProducers, int numWorkers, int numHashValues, long seed)
+      throws Exception {
+    SplittableRandom random = new SplittableRandom(seed);
+    long[] hashValues = random.longs(numHashValues).toArray();
+    ExaLogLog expected = ExaLogLog.create(t, d, p);
+    for (long hashValue : hashValues) {
+      expected.add(hashValue);
+    }
+
+    ExaLogLog sketch = ExaLogLog.create(t, d, p);
+    ExecutorService executorService = Executors.newFixedThreadPool(numProducers);
+    try (PartitionedIngestionEngine engine =
+        PartitionedIngestionEngine.start(sketch, numProducers, numWorkers, 64)) {
+      assertThat(engine.getNumProducers()).isEqualTo(numProducers);
+      assertThat(engine.getNumWorkers()).isEqualTo(numWorkers);
+      assertThat(engine.getSketch()).isSameAs(sketch);
+      Future<?>[] futures = new Future<?>[numProducers];
+      for (int i = 0; i < numProducers; ++i) {
+        PartitionedIngestionEngine.Producer producer = engine.getProducer(i);
+        int fromIdx = (int) ((long) numHashValues * i / numProducers);
+        int toIdx = (int) ((long) numHashValues * (i + 1) / numProducers);
+        futures[i] = executorService.submit(() -> producer.add(hashValues, fromIdx, toIdx));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      engine.flush();
+      assertThat(sketch.getState()).isEqualTo(expected.getState());
+    } finally {
+      executorService.shutdown();
+    }
+    assertThat(sketch.getState()).isEqualTo(expected.getState());
+  }
+
+  @Test
+  void testIngestion() throws Exception {
+    testIngestion(2, 20, 12, 1, 1, 100000, 0x5c4fb4f2a4c5b7e1L);
+    testIngestion(2, 20, 12, 3, 4, 100000, 0x0f6fa6b8cfb3e3d2L);
+    testIngestion(2, 24, 10, 2, 8, 100000, 0x4b8b7e0ea1c3b2f9L);
+    testIngestion(1, 9, 8, 4, 2, 10000, 0x9a6f5b6a1e7d0c43L);
+    testIngestion(0, 2, 5, 2, 8, 1000, 0x1f2c7d9b3a8e6045L);
+  }
+
+  @Test
+  void testIngestionIntoNonEmptySketch() {
+    SplittableRandom random = new SplittableRandom(0x7c1d2e3f4a5b6c7dL);
+    ExaLogLog sketch = ExaLogLog.create(2, 20, 10);
+    ExaLogLog expected = ExaLogLog.create(2, 20, 10);
+    for (int i = 0; i < 10000; ++i) {
+      long hashValue = random.nextLong();
+      sketch.add(hashValue);
+      expected.add(hashValue);
+    }
+    try (PartitionedIngestionEngine engine = PartitionedIngestionEngine.start(sketch, 1, 4, 16)) {
+      for (int i = 0; i < 10000; ++i) {
+        long hashValue = random.nextLong();
+        engine.getProducer(0).add(hashValue);
+        expected.add(hashValue);
+      }
+    }
+    assertThat(sketch.getState()).isEqualTo(expected.getState());
+  }
+
+  @Test
+  void testUsageAfterClose() {
+    PartitionedIngestionEngine engine =
+        PartitionedIngestionEngine.start(ExaLogLog.create(2, 20, 10), 1, 2, 16);
+    PartitionedIngestionEngine.Producer producer = engine.getProducer(0);
+    producer.add(0x8d1e7f3c5b2a4960L);
+    engine.close();
+    engine.close();
+    assertThat(engine.getSketch().getDistinctCountEstimate()).isGreaterThan(0.);
+    assertThatIllegalStateException().isThrownBy(() -> producer.add(0x3a5b7c9d1e2f4061L));
+    assertThatIllegalStateException().isThrownBy(engine::flush);
+  }
+
+  private static void testCloseWhileFlushing(boolean pendingHashValue) throws Exception {
+    ExaLogLog sketch = ExaLogLog.create(2, 20, 10);
+    PartitionedIngestionEngine engine = PartitionedIngestionEngine.create(sketch, 1, 2, 16);
+    if (pendingHashValue) {
+      engine.getProducer(0).add(0x5e2d8c1b7a49f630L);
+    }
+    Thread flushingThread = Thread.currentThread();
+    Thread closingThread =
+        new Thread(
+            () -> {
+              // the flushing thread parks while waiting for the workers, which are not started
+              while (flushingThread.getState() != Thread.State.TIMED_WAITING) {
+                Thread.onSpinWait();
+              }
+              engine.close();
+            });
+    closingThread.start();
+    assertThatIllegalStateException().isThrownBy(engine::flush);
+    engine.startWorkers();
+    closingThread.join();
+    assertThat(sketch.getDistinctCountEstimate() > 0).isEqualTo(pendingHashValue);
+  }
+
+  @Test
+  void testCloseWhileFlushing() throws Exception {
+    testCloseWhileFlushing(true);
+    testCloseWhileFlushing(false);
+  }
+
+  @Test
+  void testInterruptedClose() {
+    SplittableRandom random = new SplittableRandom(0x2f9a6c3e8d1b5074L);
+    ExaLogLog sketch = ExaLogLog.create(2, 20, 10);
+    ExaLogLog expected = ExaLogLog.create(2, 20, 10);
+    PartitionedIngestionEngine engine = PartitionedIngestionEngine.start(sketch, 1, 2, 16);
+    for (int i = 0; i < 1000; ++i) {
+      long hashValue = random.nextLong();
+      engine.getProducer(0).add(hashValue);
+      expected.add(hashValue);
+    }
+    Thread.currentThread().interrupt();
+    engine.close();
+    assertThat(Thread.interrupted()).isTrue();
+    assertThat(sketch.getState()).isEqualTo(expected.getState());
+  }
+
+  @Test
+  void testIllegalArguments() {
+    ExaLogLog sketch = ExaLogLog.create(2, 20, 4);
+    assertThatNullPointerException()
+        .isThrownBy(() -> PartitionedIngestionEngine.start(null, 1, 1, 16));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> PartitionedIngestionEngine.start(sketch, 0, 1, 16));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> PartitionedIngestionEngine.start(sketch, 1, 0, 16));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> PartitionedIngestionEngine.start(sketch, 1, 3, 16));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> PartitionedIngestionEngine.start(sketch, 1, 8, 16));
+    assertThatIllegalArgumentException()
+        .isThrownBy(
+            () -> PartitionedIngestionEngine.start(ExaLogLog.create(2, 21, 4), 1, 4, 16));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> PartitionedIngestionEngine.start(sketch, 1, 1, 1));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> PartitionedIngestionEngine.start(sketch, 1, 1, 12));
+  }
+}
@@ -0,0 +1,167 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class RotatingExaLogLogTest {
+
+  @Test
+  void testRotation() {
+    SplittableRandom random = new SplittableRandom(0x4e2b9c7d1a3f5068L);
+    RotatingExaLogLog rotatingSketch = RotatingExaLogLog.create(2, 20, 8, 2);
+    assertThat(rotatingSketch.getEpoch()).isZero();
+    for (int epoch = 1; epoch <= 10; ++epoch) {
+      ExaLogLog expected = ExaLogLog.create(2, 20, 8);
+      int numElements = random.nextInt(1000);
+      for (int i = 0; i < numElements; ++i) {
+        long hashValue = random.nextLong();
+        expected.add(hashValue);
+        if (random.nextBoolean()) {
+          rotatingSketch.add(hashValue);
+        } else {
+          rotatingSketch.addToken(ExaLogLog.computeToken(hashValue));
+        }
+      }
+      ExaLogLog sealedSketch = rotatingSketch.rotate();
+      assertThat(rotatingSketch.getEpoch()).isEqualTo(epoch);
+      assertThat(sealedSketch.getState()).isEqualTo(expected.getState());
+      rotatingSketch.recycle(sealedSketch);
+      assertThat(sealedSketch.getState()).containsOnly(0);
+    }
+  }
+
+  @Test
+  void testConcurrentRotation() throws Exception {
+    int numElements = 1000000;
+    long[] hashValues = new SplittableRandom(0x7f3a9e5c2b8d1046L).longs(numElements).toArray();
+    ExaLogLog expected = ExaLogLog.create(2, 20, 10);
+    for (long hashValue : hashValues) {
+      expected.add(hashValue);
+    }
+
+    RotatingExaLogLog rotatingSketch = RotatingExaLogLog.create(2, 20, 10, 3);
+    ExaLogLog union = ExaLogLog.create(2, 20, 10);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      AtomicBoolean finished = new AtomicBoolean();
+      Future<?> writer =
+          executorService.submit(
+              () -> {
+                for (long hashValue : hashValues) {
+                  rotatingSketch.add(hashValue);
+                }
+                finished.set(true);
+              });
+      List<Double> estimates = new ArrayList<>();
+      while (!finished.get()) {
+        ExaLogLog sealedSketch = rotatingSketch.rotate();
+        estimates.add(sealedSketch.getDistinctCountEstimate());
+        union.add(sealedSketch);
+        rotatingSketch.recycle(sealedSketch);
+      }
+      writer.get();
+      assertThat(estimates).isNotEmpty();
+    } finally {
+      executorService.shutdown();
+    }
+    ExaLogLog sealedSketch = rotatingSketch.rotate();
+    union.add(sealedSketch);
+    assertThat(union.getState()).isEqualTo(expected.getState());
+  }
+
+  @Test
+  void testPinRetryAfterRotation() {
+    RotatingExaLogLog rotatingSketch = RotatingExaLogLog.create(2, 20, 8, 2);
+    RotatingExaLogLog.Buffer staleBuffer = rotatingSketch.pin();
+    rotatingSketch.unpin(staleBuffer);
+    ExaLogLog sealedSketch = rotatingSketch.rotate();
+    // the stale buffer was read before the rotation, pinning must switch to the new active buffer
+    RotatingExaLogLog.Buffer buffer = rotatingSketch.pin(staleBuffer);
+    assertThat(buffer).isNotSameAs(staleBuffer).isSameAs(rotatingSketch.pin());
+    rotatingSketch.unpin(buffer);
+    rotatingSketch.unpin(buffer);
+    // the stale buffer is not pinned anymore, otherwise recycling and rotating would block
+    rotatingSketch.recycle(sealedSketch);
+    assertThat(rotatingSketch.rotate()).isNotSameAs(sealedSketch);
+  }
+
+  @Test
+  void testRotationWaitsForInFlightInsertion() throws Exception {
+    RotatingExaLogLog rotatingSketch = RotatingExaLogLog.create(2, 20, 8, 2);
+    rotatingSketch.add(0x6a3d9f1c5e7b2048L);
+    RotatingExaLogLog.Buffer buffer = rotatingSketch.pin();
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      AtomicReference<Thread> rotatingThread = new AtomicReference<>();
+      Future<ExaLogLog> rotation =
+          executorService.submit(
+              () -> {
+                rotatingThread.set(Thread.currentThread());
+                return rotatingSketch.rotate();
+              });
+      // the rotating thread parks while the buffer is pinned
+      while (rotatingThread.get() == null
+          || rotatingThread.get().getState() != Thread.State.TIMED_WAITING) {
+        Thread.onSpinWait();
+      }
+      assertThat(rotation.isDone()).isFalse();
+      rotatingSketch.unpin(buffer);
+      assertThat(rotation.get().getDistinctCountEstimate()).isGreaterThan(0.);
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  @Test
+  void testIllegalUsage() {
+    assertThatIllegalArgumentException().isThrownBy(() -> RotatingExaLogLog.create(2, 20, 8, 1));
+    assertThatIllegalArgumentException().isThrownBy(() -> RotatingExaLogLog.create(2, 20, 1, 2));
+
+    RotatingExaLogLog rotatingSketch = RotatingExaLogLog.create(2, 20, 8, 2);
+    ExaLogLog sealedSketch = rotatingSketch.rotate();
+    assertThatIllegalStateException().isThrownBy(rotatingSketch::rotate);
+    assertThatNullPointerException().isThrownBy(() -> rotatingSketch.recycle(null));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> rotatingSketch.recycle(ExaLogLog.create(2, 20, 8)));
+    rotatingSketch.recycle(sealedSketch);
+    assertThatIllegalArgumentException().isThrownBy(() -> rotatingSketch.recycle(sealedSketch));
+    ExaLogLog otherSealedSketch = rotatingSketch.rotate();
+    rotatingSketch.recycle(otherSealedSketch);
+    assertThatIllegalArgumentException().isThrownBy(() -> rotatingSketch.recycle(sealedSketch));
+  }
+}
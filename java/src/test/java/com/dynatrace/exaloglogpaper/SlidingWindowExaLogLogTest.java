@@ -0,0 +1,115 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class SlidingWindowExaLogLogTest {
+
+  private static void testWindows(int t, int d, int p, long maxWindow, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    SlidingWindowExaLogLog sketch = SlidingWindowExaLogLog.create(t, d, p, maxWindow);
+    int numElements = 20000;
+    long[] times = new long[numElements];
+    long[] hashValues = new long[numElements];
+    long time = 0;
+    for (int i = 0; i < numElements; ++i) {
+      time += random.nextInt(3);
+      times[i] = time;
+      // repeat earlier elements from time to time
+      hashValues[i] =
+          (i > 0 && random.nextInt(4) == 0) ? hashValues[random.nextInt(i)] : random.nextLong();
+      if (random.nextBoolean()) {
+        assertThat(sketch.add(time, hashValues[i])).isSameAs(sketch);
+      } else {
+        assertThat(sketch.addToken(time, ExaLogLog.computeToken(hashValues[i]))).isSameAs(sketch);
+      }
+      assertThat(sketch.getLatestTime()).isEqualTo(time);
+
+      if (i % 1000 == 999) {
+        for (long window : new long[] {0, 1, 10, maxWindow / 2, maxWindow}) {
+          long fromTime = time - window;
+          ExaLogLog expected = ExaLogLog.create(t, d, p);
+          for (int j = 0; j <= i; ++j) {
+            if (times[j] >= fromTime) {
+              expected.add(hashValues[j]);
+            }
+          }
+          assertThat(sketch.getSketch(fromTime).getState()).isEqualTo(expected.getState());
+          assertThat(sketch.getDistinctCountEstimate(fromTime))
+              .isEqualTo(expected.getDistinctCountEstimate());
+        }
+      }
+    }
+    // pruning keeps the number of entries well below the number of elements
+    assertThat(sketch.getNumEntries()).isLessThan(numElements / 2);
+  }
+
+  @Test
+  void testWindows() {
+    testWindows(0, 0, 4, 1000, 0x6e1f93a0c2d85b47L);
+    testWindows(1, 9, 6, 1000, 0x2b8d57e4a9106fc3L);
+    testWindows(2, 20, 8, 5000, 0xc5370e8f1b4ad296L);
+    testWindows(2, 24, 4, 100000, 0x91f4c60d7e3a2b58L);
+  }
+
+  @Test
+  void testEmpty() {
+    SlidingWindowExaLogLog sketch = SlidingWindowExaLogLog.create(2, 20, 8, 100);
+    assertThat(sketch.getLatestTime()).isEqualTo(Long.MIN_VALUE);
+    assertThat(sketch.getNumEntries()).isZero();
+    assertThat(sketch.getDistinctCountEstimate(0)).isZero();
+  }
+
+  @Test
+  void testGetters() {
+    SlidingWindowExaLogLog sketch = SlidingWindowExaLogLog.create(1, 9, 6, 100);
+    assertThat(sketch.getT()).isEqualTo(1);
+    assertThat(sketch.getD()).isEqualTo(9);
+    assertThat(sketch.getP()).isEqualTo(6);
+    assertThat(sketch.getMaxWindow()).isEqualTo(100);
+  }
+
+  @Test
+  void testIllegalArguments() {
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> SlidingWindowExaLogLog.create(2, 20, 8, -1));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> SlidingWindowExaLogLog.create(-1, 20, 8, 100));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> SlidingWindowExaLogLog.create(2, 60, 8, 100));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> SlidingWindowExaLogLog.create(2, 20, 1, 100));
+    SlidingWindowExaLogLog sketch = SlidingWindowExaLogLog.create(2, 20, 8, 100);
+    sketch.add(10, 0x1234L);
+    assertThatIllegalArgumentException().isThrownBy(() -> sketch.add(9, 0x1234L));
+    assertThatIllegalArgumentException().isThrownBy(() -> sketch.addToken(9, 0x1234));
+  }
+}
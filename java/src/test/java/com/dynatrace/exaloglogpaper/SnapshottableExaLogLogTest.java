@@ -0,0 +1,249 @@
+//
+// Copyright (c) 2024-2025 Dynatrace LLC. All rights reserved.
+//
+// This software and associated documentation files (the "Software")
+// are being made available by Dynatrace LLC for the sole purpose of
+// illustrating the implementation of certain algorithms which have
+// been published by Dynatrace LLC. Permission is hereby granted,
+// free of charge, to any person obtaining a copy of the Software,
+// to view and use the Software for internal, non-production,
+// non-commercial purposes only – the Software may not be used to
+// process live data or distributed, sublicensed, modified and/or
+// sold either alone or as part of or in combination with any other
+// software.
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+// DEALINGS IN THE SOFTWARE.
+//
+package com.dynatrace.exaloglogpaper;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class SnapshottableExaLogLogTest {
+
+  @Test
+  void testSnapshot() {
+    SplittableRandom random = new SplittableRandom(0x1b7e3d9f5a2c8046L);
+    for (int p = ExaLogLog.getMinP(); p <= 14; ++p) {
+      for (int d : new int[] {0, 1, 20, 24}) {
+        SnapshottableExaLogLog sketch = SnapshottableExaLogLog.create(2, d, p);
+        ExaLogLog expected = ExaLogLog.create(2, d, p);
+        for (int i = 0; i < 10; ++i) {
+          int numElements = random.nextInt(1000);
+          for (int j = 0; j < numElements; ++j) {
+            long hashValue = random.nextLong();
+            expected.add(hashValue);
+            if (random.nextBoolean()) {
+              sketch.add(hashValue);
+            } else {
+              sketch.addToken(ExaLogLog.computeToken(hashValue));
+            }
+          }
+          ExaLogLog snapshot = sketch.snapshot();
+          assertThat(snapshot.getP()).isEqualTo(p);
+          assertThat(snapshot.getD()).isEqualTo(d);
+          assertThat(snapshot.getState()).isEqualTo(expected.getState());
+        }
+      }
+    }
+  }
+
+  @Test
+  void testWrap() {
+    ExaLogLog sketch = ExaLogLog.create(1, 9, 6);
+    sketch.add(0x5a3c7e9b1d2f4068L);
+    ExaLogLog expected = sketch.copy();
+    assertThat(SnapshottableExaLogLog.wrap(sketch).snapshot().getState())
+        .isEqualTo(expected.getState());
+    assertThatNullPointerException().isThrownBy(() -> SnapshottableExaLogLog.wrap(null));
+  }
+
+  @Test
+  void testConcurrentSnapshots() throws Exception {
+    int numElements = 200000;
+    int t = 2;
+    int d = 20;
+    int p = 12;
+    long[] hashValues = new SplittableRandom(0x2f8a6c4e1b9d3057L).longs(numElements).toArray();
+    SnapshottableExaLogLog sketch = SnapshottableExaLogLog.create(t, d, p);
+    AtomicInteger numAddedElements = new AtomicInteger();
+    List<ExaLogLog> snapshots = new ArrayList<>();
+    List<Integer> minNumElements = new ArrayList<>();
+    List<Integer> maxNumElements = new ArrayList<>();
+
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> writer =
+          executorService.submit(
+              () -> {
+                for (long hashValue : hashValues) {
+                  sketch.add(hashValue);
+                  numAddedElements.incrementAndGet();
+                }
+              });
+      while (!writer.isDone()) {
+        minNumElements.add(numAddedElements.get());
+        snapshots.add(sketch.snapshot());
+        maxNumElements.add(numAddedElements.get() + 1);
+      }
+      writer.get();
+    } finally {
+      executorService.shutdown();
+    }
+
+    // every snapshot must be equal to the state after adding some prefix of all elements
+    ExaLogLog expected = ExaLogLog.create(t, d, p);
+    int numExpectedElements = 0;
+    for (int i = 0; i < snapshots.size(); ++i) {
+      byte[] snapshotState = snapshots.get(i).getState();
+      while (numExpectedElements < minNumElements.get(i)) {
+        expected.add(hashValues[numExpectedElements++]);
+      }
+      while (!Arrays.equals(expected.getState(), snapshotState)
+          && numExpectedElements < maxNumElements.get(i)) {
+        expected.add(hashValues[numExpectedElements++]);
+      }
+      assertThat(snapshotState).isEqualTo(expected.getState());
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // with t = 2, d = 20, and p = 10 the sketch consists of 4 blocks with 256 registers each
+  private static SnapshottableExaLogLog createSketchWithBlocks(ExaLogLog expected) {
+    SnapshottableExaLogLog sketch = SnapshottableExaLogLog.create(2, 20, 10);
+    SplittableRandom random = new SplittableRandom(0x3c9e1a7f5d2b8046L);
+    for (int i = 0; i < 1000; ++i) {
+      long hashValue = random.nextLong();
+      sketch.add(hashValue);
+      expected.add(hashValue);
+    }
+    return sketch;
+  }
+
+  private static long getHashValueOfBlock(int blockIdx, int i) {
+    return ((long) i << 20) | ((long) blockIdx << 10) | i;
+  }
+
+  @Test
+  void testSnapshotWaitsForWriterCopyingBlock() throws Exception {
+    ExaLogLog expected = ExaLogLog.create(2, 20, 10);
+    SnapshottableExaLogLog sketch = createSketchWithBlocks(expected);
+    long hashValue = getHashValueOfBlock(1, 0);
+    CountDownLatch snapshotCopying = new CountDownLatch(1);
+    CountDownLatch snapshotRelease = new CountDownLatch(1);
+    CountDownLatch writerCopying = new CountDownLatch(1);
+    CountDownLatch writerRelease = new CountDownLatch(1);
+    AtomicReference<ExaLogLog> snapshot = new AtomicReference<>();
+    Thread snapshotThread = new Thread(() -> snapshot.set(sketch.snapshot()));
+    Thread writerThread = new Thread(() -> sketch.add(hashValue));
+    sketch.blockCopyHook =
+        blockIdx -> {
+          if (Thread.currentThread() == snapshotThread && blockIdx == 0) {
+            snapshotCopying.countDown();
+            await(snapshotRelease);
+          } else if (Thread.currentThread() == writerThread) {
+            writerCopying.countDown();
+            await(writerRelease);
+          }
+        };
+    sketch.waitHook =
+        () -> {
+          if (Thread.currentThread() == snapshotThread) {
+            writerRelease.countDown();
+          }
+        };
+
+    snapshotThread.start();
+    await(snapshotCopying);
+    // the writer copies block 1 and keeps its write in flight
+    writerThread.start();
+    await(writerCopying);
+    // the snapshot skips block 1 and releases the writer while waiting for the in-flight write
+    snapshotRelease.countDown();
+    writerThread.join();
+    snapshotThread.join();
+
+    assertThat(snapshot.get().getState()).isEqualTo(expected.getState());
+    sketch.blockCopyHook = null;
+    sketch.waitHook = null;
+    expected.add(hashValue);
+    assertThat(sketch.snapshot().getState()).isEqualTo(expected.getState());
+  }
+
+  @Test
+  void testWriterWaitsForSnapshotCopyingBlock() throws Exception {
+    ExaLogLog expected = ExaLogLog.create(2, 20, 10);
+    SnapshottableExaLogLog sketch = createSketchWithBlocks(expected);
+    long[] hashValues = {
+      getHashValueOfBlock(1, 1), getHashValueOfBlock(1, 2), getHashValueOfBlock(0, 3)
+    };
+    CountDownLatch snapshotCopying = new CountDownLatch(1);
+    CountDownLatch snapshotRelease = new CountDownLatch(1);
+    AtomicReference<ExaLogLog> snapshot = new AtomicReference<>();
+    Thread snapshotThread = new Thread(() -> snapshot.set(sketch.snapshot()));
+    Thread writerThread =
+        new Thread(
+            () -> {
+              for (long hashValue : hashValues) {
+                sketch.add(hashValue);
+              }
+            });
+    sketch.blockCopyHook =
+        blockIdx -> {
+          if (Thread.currentThread() == snapshotThread && blockIdx == 0) {
+            snapshotCopying.countDown();
+            await(snapshotRelease);
+          }
+        };
+    sketch.waitHook =
+        () -> {
+          if (Thread.currentThread() == writerThread) {
+            snapshotRelease.countDown();
+          }
+        };
+
+    snapshotThread.start();
+    await(snapshotCopying);
+    // the writer copies block 1, writes to it again without copying, and releases the snapshot
+    // while waiting for block 0
+    writerThread.start();
+    writerThread.join();
+    snapshotThread.join();
+
+    assertThat(snapshot.get().getState()).isEqualTo(expected.getState());
+    sketch.blockCopyHook = null;
+    sketch.waitHook = null;
+    for (long hashValue : hashValues) {
+      expected.add(hashValue);
+    }
+    assertThat(sketch.snapshot().getState()).isEqualTo(expected.getState());
+  }
+}